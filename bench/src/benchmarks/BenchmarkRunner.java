@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import algorithms.AlgorithmRegistry;
+
+public class BenchmarkRunner {
+  private static final String[] SIZES = {
+      "100", "1000", "10000", "100000", "1000000", "10000000"
+  };
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions cli = new CommandLineOptions(args);
+    int quadraticMaxSize = Integer.getInteger(SortBenchmark.QUADRATIC_MAX_SIZE,
+        SortBenchmark.DEFAULT_QUADRATIC_MAX_SIZE);
+    // Also covers runs with forking disabled.
+    System.setProperty(SortBenchmark.PARAMS_FROM_REGISTRY, "true");
+
+    AlgorithmRegistry registry = AlgorithmRegistry.getDefault();
+    Collection<String> selected = cli.getParameter("algorithm")
+        .orElse(Arrays.asList(registry.getNames()));
+
+    List<String> quadratic = new ArrayList<>();
+    List<String> others = new ArrayList<>();
+    for (String algo : selected) {
+      (SortBenchmark.isQuadratic(registry.find(algo)) ? quadratic : others).add(algo);
+    }
+
+    // Splitting here keeps the forks from failing the trials SortBenchmark
+    // refuses above the cap.
+    run(cli, quadratic, sizesUpTo(quadraticMaxSize), quadraticMaxSize);
+    run(cli, others, SIZES, quadraticMaxSize);
+  }
+
+  private static void run(CommandLineOptions cli, List<String> algorithms, String[] sizes,
+      int quadraticMaxSize) throws RunnerException {
+    if (algorithms.isEmpty() || sizes.length == 0)
+      return;
+
+    OptionsBuilder builder = new OptionsBuilder();
+    builder.parent(cli);
+    builder.include(SortBenchmark.class.getSimpleName());
+    builder.param("algorithm", algorithms.toArray(new String[0]));
+    List<String> prepend = new ArrayList<>(cli.getJvmArgsPrepend().orElse(List.of()));
+    prepend.add("-D" + SortBenchmark.PARAMS_FROM_REGISTRY + "=true");
+    prepend.add("-D" + SortBenchmark.QUADRATIC_MAX_SIZE + "=" + quadraticMaxSize);
+    builder.jvmArgsPrepend(prepend.toArray(new String[0]));
+    if (!cli.getParameter("size").hasValue()) {
+      builder.param("size", sizes);
+    }
+    builder.addProfiler(GCProfiler.class);
+    Options options = builder.build();
+    new Runner(options).run();
+  }
+
+  private static String[] sizesUpTo(int max) {
+    return Arrays.stream(SIZES)
+        .filter(s -> Integer.parseInt(s) <= max)
+        .toArray(String[]::new);
+  }
+}
@@ -0,0 +1,116 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import algorithms.AlgorithmRegistry;
+import algorithms.SortAlgorithm;
+import util.ArrayGenerator;
+import util.InputDistribution;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@State(Scope.Thread)
+public class SortBenchmark {
+  // Set in the forks BenchmarkRunner starts, which get every registered name.
+  static final String PARAMS_FROM_REGISTRY = "bench.paramsFromRegistry";
+  static final String QUADRATIC_MAX_SIZE = "bench.quadraticMaxSize";
+  static final int DEFAULT_QUADRATIC_MAX_SIZE = 10_000;
+
+  // Defaults for a bare JMH run; BenchmarkRunner overrides this with every
+  // name in AlgorithmRegistry, including plugin algorithms.
+  @Param({ "Bubble Sort", "Selection Sort", "Insertion Sort",
+      "Merge Sort", "Quick Sort", "Heap Sort",
+      "Shell Sort", "Cocktail Sort", "Comb Sort",
+      "Gnome Sort", "Radix Sort", "Counting Sort",
+      "Parallel Merge Sort", "Parallel Radix Sort", "Intro Sort",
+      "Tim Sort" })
+  public String algorithm;
+
+  @Param({ "100", "1000", "10000", "100000", "1000000", "10000000" })
+  public int size;
+
+  @Param
+  public InputDistribution distribution;
+
+  private int[] source;
+  private int[] work;
+  private Runnable sort;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    checkAlgorithmParams();
+    SortAlgorithm algo = AlgorithmRegistry.getDefault().find(algorithm);
+    int maxSize = Integer.getInteger(QUADRATIC_MAX_SIZE, DEFAULT_QUADRATIC_MAX_SIZE);
+    if (isQuadratic(algo) && size > maxSize) {
+      // JMH reports the trial as failed and moves on to the next one.
+      throw new IllegalStateException("Skipped: " + algorithm + " is " + algo.getComplexity()
+          + " and " + size + " is above -D" + QUADRATIC_MAX_SIZE + "=" + maxSize);
+    }
+    source = ArrayGenerator.generateArray(size, distribution, new Random(42));
+    work = new int[size];
+
+    AtomicBoolean stopRequested = new AtomicBoolean(false);
+    sort = () -> algo.sort(work, stopRequested);
+  }
+
+  static boolean isQuadratic(SortAlgorithm algo) {
+    return algo.getComplexity().startsWith("O(n²");
+  }
+
+  // A bare JMH run only knows the names listed above, so it fails rather
+  // than silently skip algorithms registered since, plugins included.
+  private static void checkAlgorithmParams() {
+    if (Boolean.getBoolean(PARAMS_FROM_REGISTRY))
+      return;
+    Param listed;
+    try {
+      listed = SortBenchmark.class.getField("algorithm").getAnnotation(Param.class);
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException(e);
+    }
+    List<String> missing = new ArrayList<>(Arrays.asList(AlgorithmRegistry.getDefault().getNames()));
+    missing.removeAll(Arrays.asList(listed.value()));
+    if (!missing.isEmpty()) {
+      throw new IllegalStateException("Registered algorithms missing from SortBenchmark's @Param list: "
+          + missing + "; run BenchmarkRunner, which benchmarks every registered algorithm");
+    }
+  }
+
+  @Benchmark
+  public int[] sort() {
+    System.arraycopy(source, 0, work, 0, size);
+    sort.run();
+    return work;
+  }
+
+  @TearDown(Level.Trial)
+  public void verifySorted() {
+    for (int i = 1; i < work.length; i++) {
+      if (work[i - 1] > work[i]) {
+        throw new IllegalStateException(algorithm + " left index " + i + " out of order");
+      }
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Starts the GUI in fresh JVMs and reports the time to its first painted
+// frame, both from process launch and from Main.main. Needs a display.
+// -Dbench.startupRuns sets the number of launches (default 10) and
+// -Dbench.startupBudgetMs makes the run fail when the median from
+// Main.main exceeds it.
+public class StartupBenchmark {
+  private static final String MARKER = "first-paint-ms ";
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int runs = Integer.getInteger("bench.startupRuns", 10);
+    long budgetMs = Long.getLong("bench.startupBudgetMs", 0);
+    String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    String classpath = System.getProperty("java.class.path");
+
+    double[] fromLaunch = new double[runs];
+    double[] fromMain = new double[runs];
+    for (int r = 0; r < runs; r++) {
+      long started = System.nanoTime();
+      Process process = new ProcessBuilder(java, "-cp", classpath,
+          "-Dvisualizer.exitAfterFirstPaint=true", "main.Main")
+          .redirectErrorStream(true)
+          .start();
+      double reported = -1;
+      try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+        for (String line = out.readLine(); line != null; line = out.readLine()) {
+          if (line.startsWith(MARKER)) {
+            fromLaunch[r] = (System.nanoTime() - started) / 1e6;
+            reported = Double.parseDouble(line.substring(MARKER.length()));
+          }
+        }
+      }
+      process.waitFor();
+      if (reported < 0) {
+        System.err.println("Run " + (r + 1) + " never painted (exit code " + process.exitValue() + ")");
+        System.exit(2);
+      }
+      fromMain[r] = reported;
+      System.out.printf("run %2d: %7.1f ms from launch, %7.1f ms from Main.main%n",
+          r + 1, fromLaunch[r], fromMain[r]);
+    }
+
+    double medianMain = median(fromMain);
+    System.out.printf("median: %7.1f ms from launch, %7.1f ms from Main.main%n",
+        median(fromLaunch), medianMain);
+    if (budgetMs > 0 && medianMain > budgetMs) {
+      System.err.printf("Startup regressed: median %.1f ms exceeds budget of %d ms%n",
+          medianMain, budgetMs);
+      System.exit(1);
+    }
+  }
+
+  private static double median(double[] values) {
+    double[] sorted = values.clone();
+    Arrays.sort(sorted);
+    int mid = sorted.length / 2;
+    return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+  }
+}
@@ -0,0 +1,74 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+public final class AlgorithmRegistry {
+  private final List<SortAlgorithm> algorithms;
+  private final Map<String, SortAlgorithm> byName = new LinkedHashMap<>();
+
+  private AlgorithmRegistry(List<SortAlgorithm> algorithms) {
+    List<SortAlgorithm> unique = new ArrayList<>();
+    for (SortAlgorithm algorithm : algorithms) {
+      if (byName.putIfAbsent(algorithm.getName(), algorithm) == null) {
+        unique.add(algorithm);
+      } else {
+        System.err.println("Ignoring duplicate sort algorithm: " + algorithm.getName());
+      }
+    }
+    this.algorithms = Collections.unmodifiableList(unique);
+  }
+
+  public static AlgorithmRegistry getDefault() {
+    return Holder.DEFAULT;
+  }
+
+  public static AlgorithmRegistry load(ClassLoader loader) {
+    List<SortAlgorithm> algorithms = new ArrayList<>(BuiltinAlgorithm.all());
+    for (SortAlgorithm algorithm : ServiceLoader.load(SortAlgorithm.class, loader)) {
+      algorithms.add(algorithm);
+    }
+    return new AlgorithmRegistry(algorithms);
+  }
+
+  public List<SortAlgorithm> getAlgorithms() {
+    return algorithms;
+  }
+
+  public int size() {
+    return algorithms.size();
+  }
+
+  public SortAlgorithm get(int index) {
+    return algorithms.get(index);
+  }
+
+  public SortAlgorithm find(String name) {
+    SortAlgorithm algorithm = byName.get(name);
+    if (algorithm == null) {
+      throw new IllegalArgumentException("Unknown sort algorithm: " + name);
+    }
+    return algorithm;
+  }
+
+  // -1 if no algorithm has that name.
+  public int indexOf(String name) {
+    return algorithms.indexOf(byName.get(name));
+  }
+
+  public String[] getNames() {
+    String[] names = new String[algorithms.size()];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = algorithms.get(i).getName();
+    }
+    return names;
+  }
+
+  private static final class Holder {
+    static final AlgorithmRegistry DEFAULT = load(AlgorithmRegistry.class.getClassLoader());
+  }
+}
@@ -0,0 +1,991 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+import model.WorkerPools;
+
+// Uninstrumented twins of the SortingAlgorithms methods: same algorithms, no
+// callbacks or sound, and the stop flag is only polled at block boundaries.
+public class BenchmarkSorts {
+  static final int CHECK_BLOCK = 1 << 12;
+  private static final int RADIX_MIN_CHUNK = 1 << 14;
+  static final int INSERTION_CUTOFF = 24;
+  static final int NINTHER_THRESHOLD = 128;
+  static final int PARTIAL_INSERTION_LIMIT = 8;
+  static final int MIN_MERGE = 32;
+  static final int MIN_GALLOP = 7;
+
+  private final int[] array;
+  private final AtomicBoolean stopRequested;
+  private int parallelThreshold = 1 << 13;
+  private int[] mergeBuffer = new int[0];
+  private int minGallop = MIN_GALLOP;
+
+  public BenchmarkSorts(int[] array, AtomicBoolean stopRequested) {
+    this.array = array;
+    this.stopRequested = stopRequested;
+  }
+
+  public BenchmarkSorts(int[] array) {
+    this(array, new AtomicBoolean(false));
+  }
+
+  public void setParallelThreshold(int parallelThreshold) {
+    this.parallelThreshold = Math.max(2, parallelThreshold);
+  }
+
+  public void bubbleSort() {
+    int[] a = array;
+    int n = a.length;
+    for (int i = 0; i < n - 1 && !stopRequested.get(); i++) {
+      for (int j = 0; j < n - i - 1; j++) {
+        if (a[j] > a[j + 1]) {
+          int t = a[j];
+          a[j] = a[j + 1];
+          a[j + 1] = t;
+        }
+      }
+    }
+  }
+
+  public void selectionSort() {
+    int[] a = array;
+    int n = a.length;
+    for (int i = 0; i < n - 1 && !stopRequested.get(); i++) {
+      int min = i;
+      for (int j = i + 1; j < n; j++) {
+        if (a[j] < a[min]) {
+          min = j;
+        }
+      }
+      if (min != i) {
+        int t = a[i];
+        a[i] = a[min];
+        a[min] = t;
+      }
+    }
+  }
+
+  public void insertionSort() {
+    int[] a = array;
+    for (int i = 1; i < a.length && !stopRequested.get(); i++) {
+      int key = a[i];
+      int j = i - 1;
+      while (j >= 0 && a[j] > key) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = key;
+    }
+  }
+
+  public void mergeSort() {
+    mergeSort(0, array.length - 1, new int[array.length]);
+  }
+
+  private void mergeSort(int l, int r, int[] tmp) {
+    if (l >= r || (r - l >= CHECK_BLOCK && stopRequested.get()))
+      return;
+
+    int m = (l + r) >>> 1;
+    mergeSort(l, m, tmp);
+    mergeSort(m + 1, r, tmp);
+
+    int[] a = array;
+    int i = l, j = m + 1, k = l;
+    while (i <= m && j <= r) {
+      tmp[k++] = a[i] <= a[j] ? a[i++] : a[j++];
+    }
+    while (i <= m) {
+      tmp[k++] = a[i++];
+    }
+    while (j <= r) {
+      tmp[k++] = a[j++];
+    }
+    System.arraycopy(tmp, l, a, l, r - l + 1);
+  }
+
+  // Same pool as SortingAlgorithms.parallelMergeSort().
+  public void parallelMergeSort() {
+    int[] tmp = new int[array.length];
+    WorkerPools.parallel().invoke(
+        ForkJoinTask.adapt(() -> parallelMergeSort(0, array.length - 1, tmp)));
+  }
+
+  private void parallelMergeSort(int l, int r, int[] tmp) {
+    if (l >= r || stopRequested.get())
+      return;
+    if (r - l + 1 <= parallelThreshold) {
+      mergeSort(l, r, tmp);
+      return;
+    }
+
+    int m = (l + r) >>> 1;
+    ForkJoinTask.invokeAll(
+        ForkJoinTask.adapt(() -> parallelMergeSort(l, m, tmp)),
+        ForkJoinTask.adapt(() -> parallelMergeSort(m + 1, r, tmp)));
+    parallelMerge(tmp, l, m + 1, m + 1, r + 1, l);
+    parallelCopyBack(tmp, l, r + 1);
+  }
+
+  private void parallelMerge(int[] tmp, int a1, int a2, int b1, int b2, int k) {
+    int[] a = array;
+    if ((a2 - a1) + (b2 - b1) <= parallelThreshold) {
+      int i = a1, j = b1, out = k;
+      while (i < a2 && j < b2) {
+        tmp[out++] = a[i] <= a[j] ? a[i++] : a[j++];
+      }
+      System.arraycopy(a, i, tmp, out, a2 - i);
+      System.arraycopy(a, j, tmp, out + (a2 - i), b2 - j);
+      return;
+    }
+
+    int ma;
+    int mb;
+    if (a2 - a1 >= b2 - b1) {
+      ma = (a1 + a2) >>> 1;
+      mb = lowerBound(b1, b2, a[ma]);
+    } else {
+      mb = (b1 + b2) >>> 1;
+      ma = upperBound(a1, a2, a[mb]);
+    }
+    int split = k + (ma - a1) + (mb - b1);
+    ForkJoinTask.invokeAll(
+        ForkJoinTask.adapt(() -> parallelMerge(tmp, a1, ma, b1, mb, k)),
+        ForkJoinTask.adapt(() -> parallelMerge(tmp, ma, a2, mb, b2, split)));
+  }
+
+  private int lowerBound(int lo, int hi, int key) {
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (array[mid] < key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private int upperBound(int lo, int hi, int key) {
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (array[mid] <= key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private void parallelCopyBack(int[] tmp, int lo, int hi) {
+    if (hi - lo <= parallelThreshold) {
+      System.arraycopy(tmp, lo, array, lo, hi - lo);
+      return;
+    }
+
+    int mid = (lo + hi) >>> 1;
+    ForkJoinTask.invokeAll(
+        ForkJoinTask.adapt(() -> parallelCopyBack(tmp, lo, mid)),
+        ForkJoinTask.adapt(() -> parallelCopyBack(tmp, mid, hi)));
+  }
+
+  public void quickSort() {
+    quickSort(0, array.length - 1);
+  }
+
+  private void quickSort(int low, int high) {
+    if (low >= high || (high - low >= CHECK_BLOCK && stopRequested.get()))
+      return;
+
+    int[] a = array;
+    int i = low, j = high;
+    int pivot = a[(low + high) >>> 1];
+
+    while (i <= j) {
+      while (a[i] < pivot) {
+        i++;
+      }
+      while (a[j] > pivot) {
+        j--;
+      }
+      if (i <= j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+        i++;
+        j--;
+      }
+    }
+
+    if (low < j)
+      quickSort(low, j);
+    if (i < high)
+      quickSort(i, high);
+  }
+
+  public void introSort() {
+    int n = array.length;
+    introSort(0, n, 32 - Integer.numberOfLeadingZeros(Math.max(1, n)));
+  }
+
+  // pdqsort-style loop over [lo, hi): recurse into the smaller side, iterate on
+  // the larger, fall back to heap sort after too many unbalanced partitions.
+  private void introSort(int lo, int hi, int badAllowed) {
+    int[] a = array;
+    while (hi - lo > INSERTION_CUTOFF) {
+      int size = hi - lo;
+      if (size >= CHECK_BLOCK && stopRequested.get())
+        return;
+
+      choosePivot(lo, hi);
+      int pivot = a[lo];
+      int i = lo + 1;
+      int j = hi - 1;
+      boolean alreadyPartitioned = true;
+      while (true) {
+        while (i <= j && a[i] < pivot) {
+          i++;
+        }
+        while (a[j] > pivot) {
+          j--;
+        }
+        if (i >= j)
+          break;
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+        alreadyPartitioned = false;
+        i++;
+        j--;
+      }
+      a[lo] = a[j];
+      a[j] = pivot;
+
+      int leftSize = j - lo;
+      int rightSize = hi - j - 1;
+      if (leftSize < size / 8 || rightSize < size / 8) {
+        if (--badAllowed == 0) {
+          heapSortRange(lo, hi);
+          return;
+        }
+        breakPatterns(lo, j);
+        breakPatterns(j + 1, hi);
+      } else if (alreadyPartitioned
+          && partialInsertionSort(lo, j) && partialInsertionSort(j + 1, hi)) {
+        return;
+      }
+
+      if (leftSize < rightSize) {
+        introSort(lo, j, badAllowed);
+        lo = j + 1;
+      } else {
+        introSort(j + 1, hi, badAllowed);
+        hi = j;
+      }
+    }
+    insertionSortRange(lo, hi);
+  }
+
+  // Moves the median of three (or Tukey's ninther on large ranges) to lo.
+  private void choosePivot(int lo, int hi) {
+    int size = hi - lo;
+    int mid = lo + size / 2;
+    int m;
+    if (size > NINTHER_THRESHOLD) {
+      int step = size / 8;
+      m = medianOf3(
+          medianOf3(lo, lo + step, lo + 2 * step),
+          medianOf3(mid - step, mid, mid + step),
+          medianOf3(hi - 1 - 2 * step, hi - 1 - step, hi - 1));
+    } else {
+      m = medianOf3(lo, mid, hi - 1);
+    }
+    int t = array[lo];
+    array[lo] = array[m];
+    array[m] = t;
+  }
+
+  private int medianOf3(int x, int y, int z) {
+    int[] a = array;
+    if (a[x] < a[y]) {
+      return a[y] < a[z] ? y : (a[x] < a[z] ? z : x);
+    }
+    return a[x] < a[z] ? x : (a[y] < a[z] ? z : y);
+  }
+
+  // Swaps a few elements around the quartiles to break up adversarial inputs.
+  private void breakPatterns(int lo, int hi) {
+    int size = hi - lo;
+    if (size <= INSERTION_CUTOFF)
+      return;
+    int[] a = array;
+    int quarter = size / 4;
+    for (int k = -1; k <= 1; k++) {
+      int x = lo + quarter + k;
+      int y = lo + (size - 1) - quarter - k;
+      int t = a[x];
+      a[x] = a[y];
+      a[y] = t;
+    }
+  }
+
+  // Insertion sort that gives up after a fixed number of element moves.
+  private boolean partialInsertionSort(int lo, int hi) {
+    int[] a = array;
+    int moves = 0;
+    for (int i = lo + 1; i < hi; i++) {
+      int key = a[i];
+      int j = i - 1;
+      if (a[j] <= key)
+        continue;
+      while (j >= lo && a[j] > key) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = key;
+      moves += i - j - 1;
+      if (moves > PARTIAL_INSERTION_LIMIT)
+        return false;
+    }
+    return true;
+  }
+
+  private void insertionSortRange(int lo, int hi) {
+    int[] a = array;
+    for (int i = lo + 1; i < hi; i++) {
+      int key = a[i];
+      int j = i - 1;
+      while (j >= lo && a[j] > key) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = key;
+    }
+  }
+
+  private void heapSortRange(int lo, int hi) {
+    int[] a = array;
+    int n = hi - lo;
+    for (int i = n / 2 - 1; i >= 0; i--) {
+      siftDown(lo, n, i);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      int t = a[lo];
+      a[lo] = a[lo + i];
+      a[lo + i] = t;
+      siftDown(lo, i, 0);
+    }
+  }
+
+  private void siftDown(int base, int n, int i) {
+    int[] a = array;
+    while (true) {
+      int largest = i;
+      int l = 2 * i + 1;
+      int r = l + 1;
+      if (l < n && a[base + l] > a[base + largest]) {
+        largest = l;
+      }
+      if (r < n && a[base + r] > a[base + largest]) {
+        largest = r;
+      }
+      if (largest == i) {
+        return;
+      }
+      int t = a[base + i];
+      a[base + i] = a[base + largest];
+      a[base + largest] = t;
+      i = largest;
+    }
+  }
+
+  // Natural merge sort: runs are detected (descending ones reversed), short
+  // runs are extended by binary insertion, and the merge order follows the
+  // powersort policy. Merges gallop once one side keeps winning.
+  public void timSort() {
+    int[] a = array;
+    int n = a.length;
+    if (n < 2)
+      return;
+
+    int minRun = minRunLength(n);
+    int[] runBase = new int[64];
+    int[] runLen = new int[64];
+    int[] runPower = new int[64];
+    int stackSize = 0;
+
+    int s1 = 0;
+    int n1 = extendRun(0, n, minRun);
+    while (s1 + n1 < n) {
+      if (stopRequested.get())
+        return;
+      int s2 = s1 + n1;
+      int n2 = extendRun(s2, n, minRun);
+      int power = nodePower(n, s1, s2, s2 + n2);
+      while (stackSize > 0 && runPower[stackSize - 1] > power) {
+        stackSize--;
+        mergeAdjacentRuns(runBase[stackSize], runLen[stackSize], n1);
+        s1 = runBase[stackSize];
+        n1 += runLen[stackSize];
+      }
+      runBase[stackSize] = s1;
+      runLen[stackSize] = n1;
+      runPower[stackSize] = power;
+      stackSize++;
+      s1 = s2;
+      n1 = n2;
+    }
+    while (stackSize > 0) {
+      stackSize--;
+      mergeAdjacentRuns(runBase[stackSize], runLen[stackSize], n1);
+      n1 += runLen[stackSize];
+    }
+  }
+
+  static int minRunLength(int n) {
+    int r = 0;
+    while (n >= MIN_MERGE) {
+      r |= n & 1;
+      n >>= 1;
+    }
+    return n + r;
+  }
+
+  // Depth of the boundary between [s1, s2) and [s2, e2) in the nearly-optimal
+  // merge tree: the first bit where the two run midpoints (as fractions of n)
+  // differ.
+  static int nodePower(int n, int s1, int s2, int e2) {
+    long l = (long) s1 + s2;
+    long r = (long) s2 + e2;
+    long a = (l << 30) / n;
+    long b = (r << 30) / n;
+    return Long.numberOfLeadingZeros(a ^ b) - 32;
+  }
+
+  private int extendRun(int start, int n, int minRun) {
+    int[] a = array;
+    int end = start + 1;
+    if (end < n) {
+      if (a[end++] < a[start]) {
+        while (end < n && a[end] < a[end - 1]) {
+          end++;
+        }
+        for (int i = start, j = end - 1; i < j; i++, j--) {
+          int t = a[i];
+          a[i] = a[j];
+          a[j] = t;
+        }
+      } else {
+        while (end < n && a[end] >= a[end - 1]) {
+          end++;
+        }
+      }
+    }
+
+    int runLen = end - start;
+    if (runLen < minRun) {
+      int forced = Math.min(minRun, n - start);
+      for (int i = start + runLen; i < start + forced; i++) {
+        int key = a[i];
+        int lo = start;
+        int hi = i;
+        while (lo < hi) {
+          int mid = (lo + hi) >>> 1;
+          if (key < a[mid]) {
+            hi = mid;
+          } else {
+            lo = mid + 1;
+          }
+        }
+        System.arraycopy(a, lo, a, lo + 1, i - lo);
+        a[lo] = key;
+      }
+      runLen = forced;
+    }
+    return runLen;
+  }
+
+  private void mergeAdjacentRuns(int base1, int len1, int len2) {
+    int[] a = array;
+    int base2 = base1 + len1;
+    int k = gallopRight(a[base2], a, base1, len1, 0);
+    base1 += k;
+    len1 -= k;
+    if (len1 == 0)
+      return;
+    len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2, len2 - 1);
+    if (len2 == 0)
+      return;
+
+    if (len1 <= len2) {
+      mergeLo(base1, len1, base2, len2);
+    } else {
+      mergeHi(base1, len1, base2, len2);
+    }
+  }
+
+  private int[] ensureMergeBuffer(int length) {
+    if (mergeBuffer.length < length) {
+      mergeBuffer = new int[Math.max(length, Math.min(array.length, mergeBuffer.length * 2))];
+    }
+    return mergeBuffer;
+  }
+
+  private void mergeLo(int base1, int len1, int base2, int len2) {
+    int[] a = array;
+    int[] tmp = ensureMergeBuffer(len1);
+    System.arraycopy(a, base1, tmp, 0, len1);
+    int c1 = 0;
+    int c2 = base2;
+    int dest = base1;
+    int end2 = base2 + len2;
+
+    outer: while (c1 < len1 && c2 < end2) {
+      int count1 = 0;
+      int count2 = 0;
+      while (count1 < minGallop && count2 < minGallop) {
+        if (a[c2] < tmp[c1]) {
+          a[dest++] = a[c2++];
+          count2++;
+          count1 = 0;
+          if (c2 == end2)
+            break outer;
+        } else {
+          a[dest++] = tmp[c1++];
+          count1++;
+          count2 = 0;
+          if (c1 == len1)
+            break outer;
+        }
+      }
+
+      while (true) {
+        int k1 = gallopRight(a[c2], tmp, c1, len1 - c1, 0);
+        System.arraycopy(tmp, c1, a, dest, k1);
+        dest += k1;
+        c1 += k1;
+        if (c1 == len1)
+          break outer;
+        a[dest++] = a[c2++];
+        if (c2 == end2)
+          break outer;
+
+        int k2 = gallopLeft(tmp[c1], a, c2, end2 - c2, 0);
+        System.arraycopy(a, c2, a, dest, k2);
+        dest += k2;
+        c2 += k2;
+        if (c2 == end2)
+          break outer;
+        a[dest++] = tmp[c1++];
+        if (c1 == len1)
+          break outer;
+
+        if (k1 < MIN_GALLOP && k2 < MIN_GALLOP) {
+          minGallop++;
+          break;
+        }
+        minGallop = Math.max(1, minGallop - 1);
+      }
+    }
+    System.arraycopy(tmp, c1, a, dest, len1 - c1);
+  }
+
+  private void mergeHi(int base1, int len1, int base2, int len2) {
+    int[] a = array;
+    int[] tmp = ensureMergeBuffer(len2);
+    System.arraycopy(a, base2, tmp, 0, len2);
+    int c1 = base1 + len1 - 1;
+    int c2 = len2 - 1;
+    int dest = base2 + len2 - 1;
+
+    outer: while (c1 >= base1 && c2 >= 0) {
+      int count1 = 0;
+      int count2 = 0;
+      while (count1 < minGallop && count2 < minGallop) {
+        if (tmp[c2] < a[c1]) {
+          a[dest--] = a[c1--];
+          count1++;
+          count2 = 0;
+          if (c1 < base1)
+            break outer;
+        } else {
+          a[dest--] = tmp[c2--];
+          count2++;
+          count1 = 0;
+          if (c2 < 0)
+            break outer;
+        }
+      }
+
+      while (true) {
+        int k1 = (c1 - base1 + 1) - gallopRight(tmp[c2], a, base1, c1 - base1 + 1, c1 - base1);
+        dest -= k1;
+        c1 -= k1;
+        System.arraycopy(a, c1 + 1, a, dest + 1, k1);
+        if (c1 < base1)
+          break outer;
+        a[dest--] = tmp[c2--];
+        if (c2 < 0)
+          break outer;
+
+        int k2 = (c2 + 1) - gallopLeft(a[c1], tmp, 0, c2 + 1, c2);
+        dest -= k2;
+        c2 -= k2;
+        System.arraycopy(tmp, c2 + 1, a, dest + 1, k2);
+        if (c2 < 0)
+          break outer;
+        a[dest--] = a[c1--];
+        if (c1 < base1)
+          break outer;
+
+        if (k1 < MIN_GALLOP && k2 < MIN_GALLOP) {
+          minGallop++;
+          break;
+        }
+        minGallop = Math.max(1, minGallop - 1);
+      }
+    }
+    System.arraycopy(tmp, 0, a, dest - c2, c2 + 1);
+  }
+
+  // Index k in [0, len] with a[base + k - 1] < key <= a[base + k], searched
+  // outward from hint with exponentially growing steps.
+  static int gallopLeft(int key, int[] a, int base, int len, int hint) {
+    int lastOfs = 0;
+    int ofs = 1;
+    if (key > a[base + hint]) {
+      int maxOfs = len - hint;
+      while (ofs < maxOfs && key > a[base + hint + ofs]) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0)
+          ofs = maxOfs;
+      }
+      ofs = Math.min(ofs, maxOfs);
+      lastOfs += hint;
+      ofs += hint;
+    } else {
+      int maxOfs = hint + 1;
+      while (ofs < maxOfs && key <= a[base + hint - ofs]) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0)
+          ofs = maxOfs;
+      }
+      ofs = Math.min(ofs, maxOfs);
+      int t = lastOfs;
+      lastOfs = hint - ofs;
+      ofs = hint - t;
+    }
+
+    lastOfs++;
+    while (lastOfs < ofs) {
+      int m = lastOfs + ((ofs - lastOfs) >>> 1);
+      if (key > a[base + m]) {
+        lastOfs = m + 1;
+      } else {
+        ofs = m;
+      }
+    }
+    return ofs;
+  }
+
+  // Index k in [0, len] with a[base + k - 1] <= key < a[base + k].
+  static int gallopRight(int key, int[] a, int base, int len, int hint) {
+    int lastOfs = 0;
+    int ofs = 1;
+    if (key < a[base + hint]) {
+      int maxOfs = hint + 1;
+      while (ofs < maxOfs && key < a[base + hint - ofs]) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0)
+          ofs = maxOfs;
+      }
+      ofs = Math.min(ofs, maxOfs);
+      int t = lastOfs;
+      lastOfs = hint - ofs;
+      ofs = hint - t;
+    } else {
+      int maxOfs = len - hint;
+      while (ofs < maxOfs && key >= a[base + hint + ofs]) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0)
+          ofs = maxOfs;
+      }
+      ofs = Math.min(ofs, maxOfs);
+      lastOfs += hint;
+      ofs += hint;
+    }
+
+    lastOfs++;
+    while (lastOfs < ofs) {
+      int m = lastOfs + ((ofs - lastOfs) >>> 1);
+      if (key < a[base + m]) {
+        ofs = m;
+      } else {
+        lastOfs = m + 1;
+      }
+    }
+    return ofs;
+  }
+
+  public void heapSort() {
+    int[] a = array;
+    int n = a.length;
+    for (int i = n / 2 - 1; i >= 0; i--) {
+      if ((i & (CHECK_BLOCK - 1)) == 0 && stopRequested.get())
+        return;
+      heapify(n, i);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      if ((i & (CHECK_BLOCK - 1)) == 0 && stopRequested.get())
+        return;
+      int t = a[0];
+      a[0] = a[i];
+      a[i] = t;
+      heapify(i, 0);
+    }
+  }
+
+  private void heapify(int n, int i) {
+    int[] a = array;
+    while (true) {
+      int largest = i;
+      int l = 2 * i + 1;
+      int r = l + 1;
+      if (l < n && a[l] > a[largest]) {
+        largest = l;
+      }
+      if (r < n && a[r] > a[largest]) {
+        largest = r;
+      }
+      if (largest == i) {
+        return;
+      }
+      int t = a[i];
+      a[i] = a[largest];
+      a[largest] = t;
+      i = largest;
+    }
+  }
+
+  public void shellSort() {
+    int[] a = array;
+    int n = a.length;
+    for (int gap = n / 2; gap > 0 && !stopRequested.get(); gap /= 2) {
+      for (int i = gap; i < n; i++) {
+        int temp = a[i];
+        int j = i;
+        while (j >= gap && a[j - gap] > temp) {
+          a[j] = a[j - gap];
+          j -= gap;
+        }
+        a[j] = temp;
+      }
+    }
+  }
+
+  public void cocktailSort() {
+    int[] a = array;
+    boolean swapped = true;
+    int start = 0;
+    int end = a.length - 1;
+
+    while (swapped && !stopRequested.get()) {
+      swapped = false;
+      for (int i = start; i < end; i++) {
+        if (a[i] > a[i + 1]) {
+          int t = a[i];
+          a[i] = a[i + 1];
+          a[i + 1] = t;
+          swapped = true;
+        }
+      }
+
+      if (!swapped)
+        break;
+      swapped = false;
+      end--;
+
+      for (int i = end - 1; i >= start; i--) {
+        if (a[i] > a[i + 1]) {
+          int t = a[i];
+          a[i] = a[i + 1];
+          a[i + 1] = t;
+          swapped = true;
+        }
+      }
+      start++;
+    }
+  }
+
+  public void combSort() {
+    int[] a = array;
+    int n = a.length;
+    int gap = n;
+    boolean swapped = true;
+    final double shrink = 1.3;
+
+    while ((gap > 1 || swapped) && !stopRequested.get()) {
+      gap = (int) (gap / shrink);
+      if (gap < 1)
+        gap = 1;
+
+      swapped = false;
+      for (int i = 0; i + gap < n; i++) {
+        if (a[i] > a[i + gap]) {
+          int t = a[i];
+          a[i] = a[i + gap];
+          a[i + gap] = t;
+          swapped = true;
+        }
+      }
+    }
+  }
+
+  public void gnomeSort() {
+    int[] a = array;
+    int pos = 0;
+    int steps = 0;
+    while (pos < a.length) {
+      if ((++steps & (CHECK_BLOCK - 1)) == 0 && stopRequested.get())
+        return;
+      if (pos == 0 || a[pos] >= a[pos - 1]) {
+        pos++;
+      } else {
+        int t = a[pos];
+        a[pos] = a[pos - 1];
+        a[pos - 1] = t;
+        pos--;
+      }
+    }
+  }
+
+  public void radixSort() {
+    int[] a = array;
+    int n = a.length;
+    int max = 0;
+    for (int v : a) {
+      max = Math.max(max, v);
+    }
+
+    int[] output = new int[n];
+    int[] count = new int[10];
+    for (int exp = 1; max / exp > 0 && !stopRequested.get(); exp *= 10) {
+      Arrays.fill(count, 0);
+      for (int i = 0; i < n; i++) {
+        count[(a[i] / exp) % 10]++;
+      }
+      for (int i = 1; i < 10; i++) {
+        count[i] += count[i - 1];
+      }
+      for (int i = n - 1; i >= 0; i--) {
+        int digit = (a[i] / exp) % 10;
+        output[--count[digit]] = a[i];
+      }
+      System.arraycopy(output, 0, a, 0, n);
+    }
+  }
+
+  // Runs on the same pool as the animated sort, so both measure one pool
+  // configuration.
+  public void parallelRadixSort() {
+    int n = array.length;
+    if (n < 2)
+      return;
+    WorkerPools.parallel().invoke(ForkJoinTask.adapt(() -> parallelRadixSort(n)));
+  }
+
+  private void parallelRadixSort(int n) {
+    int chunks = Math.max(1, Math.min(WorkerPools.parallel().getParallelism(), n / RADIX_MIN_CHUNK));
+    int[][] histograms = new int[chunks][Radix256.RADIX];
+    int[] src = array;
+    int[] dst = new int[n];
+
+    for (int shift = 0; shift < Integer.SIZE && !stopRequested.get(); shift += Radix256.BITS) {
+      int pass = shift;
+      int[] from = src;
+      int[] to = dst;
+
+      forEachChunk(chunks, c -> {
+        int[] hist = histograms[c];
+        Arrays.fill(hist, 0);
+        int end = Radix256.chunkStart(n, chunks, c + 1);
+        for (int i = Radix256.chunkStart(n, chunks, c); i < end; i++) {
+          hist[Radix256.digit(from[i], pass)]++;
+        }
+      });
+      if (Radix256.prefixSumOrSkip(histograms, n))
+        continue;
+
+      forEachChunk(chunks, c -> {
+        int[] offsets = histograms[c];
+        int end = Radix256.chunkStart(n, chunks, c + 1);
+        for (int i = Radix256.chunkStart(n, chunks, c); i < end; i++) {
+          int v = from[i];
+          to[offsets[Radix256.digit(v, pass)]++] = v;
+        }
+      });
+      src = to;
+      dst = from;
+    }
+
+    if (src != array) {
+      System.arraycopy(src, 0, array, 0, n);
+    }
+  }
+
+  private static void forEachChunk(int chunks, IntConsumer body) {
+    if (chunks == 1) {
+      body.accept(0);
+      return;
+    }
+    List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+    for (int c = 0; c < chunks; c++) {
+      int chunk = c;
+      tasks.add(ForkJoinTask.adapt(() -> body.accept(chunk)));
+    }
+    ForkJoinTask.invokeAll(tasks);
+  }
+
+  public void countingSort() {
+    int[] a = array;
+    if (a.length == 0)
+      return;
+
+    int max = a[0];
+    int min = a[0];
+    for (int v : a) {
+      max = Math.max(max, v);
+      min = Math.min(min, v);
+    }
+    int range = max - min + 1;
+
+    int[] count = new int[range];
+    int[] output = new int[a.length];
+
+    for (int v : a) {
+      count[v - min]++;
+    }
+    if (stopRequested.get())
+      return;
+    for (int i = 1; i < range; i++) {
+      count[i] += count[i - 1];
+    }
+    for (int i = a.length - 1; i >= 0; i--) {
+      output[--count[a[i] - min]] = a[i];
+    }
+    if (stopRequested.get())
+      return;
+    System.arraycopy(output, 0, a, 0, a.length);
+  }
+}
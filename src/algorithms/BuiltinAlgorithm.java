@@ -0,0 +1,144 @@
+package algorithms;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+final class BuiltinAlgorithm implements SortAlgorithm {
+  private final String name;
+  private final String complexity;
+  private final String summary;
+  private final boolean stable;
+  private final boolean inPlace;
+  private final String auxiliaryMemory;
+  private final boolean parallel;
+  private final Consumer<SortingAlgorithms> visual;
+  private final Consumer<BenchmarkSorts> benchmark;
+
+  private BuiltinAlgorithm(String name, String complexity, String summary,
+      boolean stable, boolean inPlace, String auxiliaryMemory, boolean parallel,
+      Consumer<SortingAlgorithms> visual, Consumer<BenchmarkSorts> benchmark) {
+    this.name = name;
+    this.complexity = complexity;
+    this.summary = summary;
+    this.stable = stable;
+    this.inPlace = inPlace;
+    this.auxiliaryMemory = auxiliaryMemory;
+    this.parallel = parallel;
+    this.visual = visual;
+    this.benchmark = benchmark;
+  }
+
+  static List<SortAlgorithm> all() {
+    return List.of(
+        new BuiltinAlgorithm("Bubble Sort", "O(n²)",
+            "Repeatedly swaps adjacent elements if they're in wrong order",
+            true, true, "O(1)", false,
+            SortingAlgorithms::bubbleSort, BenchmarkSorts::bubbleSort),
+        new BuiltinAlgorithm("Selection Sort", "O(n²)",
+            "Finds minimum element and places it at the beginning",
+            false, true, "O(1)", false,
+            SortingAlgorithms::selectionSort, BenchmarkSorts::selectionSort),
+        new BuiltinAlgorithm("Insertion Sort", "O(n²)",
+            "Builds sorted array one item at a time",
+            true, true, "O(1)", false,
+            SortingAlgorithms::insertionSort, BenchmarkSorts::insertionSort),
+        new BuiltinAlgorithm("Merge Sort", "O(n log n)",
+            "Divides array and merges sorted halves",
+            true, false, "O(n)", false,
+            SortingAlgorithms::mergeSort, BenchmarkSorts::mergeSort),
+        new BuiltinAlgorithm("Quick Sort", "O(n log n) avg",
+            "Picks pivot and partitions around it",
+            false, true, "O(log n) stack", false,
+            SortingAlgorithms::quickSort, BenchmarkSorts::quickSort),
+        new BuiltinAlgorithm("Heap Sort", "O(n log n)",
+            "Builds max heap and extracts elements",
+            false, true, "O(1)", false,
+            SortingAlgorithms::heapSort, BenchmarkSorts::heapSort),
+        new BuiltinAlgorithm("Shell Sort", "O(n log n)",
+            "Insertion sort with decreasing gaps",
+            false, true, "O(1)", false,
+            SortingAlgorithms::shellSort, BenchmarkSorts::shellSort),
+        new BuiltinAlgorithm("Cocktail Sort", "O(n²)",
+            "Bubble sort variant that goes both directions",
+            true, true, "O(1)", false,
+            SortingAlgorithms::cocktailSort, BenchmarkSorts::cocktailSort),
+        new BuiltinAlgorithm("Comb Sort", "O(n²/2ᵖ)",
+            "Bubble sort with decreasing gaps",
+            false, true, "O(1)", false,
+            SortingAlgorithms::combSort, BenchmarkSorts::combSort),
+        new BuiltinAlgorithm("Gnome Sort", "O(n²)",
+            "Similar to insertion sort with position tracking",
+            true, true, "O(1)", false,
+            SortingAlgorithms::gnomeSort, BenchmarkSorts::gnomeSort),
+        new BuiltinAlgorithm("Radix Sort", "O(nk)",
+            "Non-comparative, sorts by individual digits",
+            true, false, "O(n)", false,
+            SortingAlgorithms::radixSort, BenchmarkSorts::radixSort),
+        new BuiltinAlgorithm("Counting Sort", "O(n+k)",
+            "Counts occurrences of each value",
+            true, false, "O(n+k)", false,
+            SortingAlgorithms::countingSort, BenchmarkSorts::countingSort),
+        new BuiltinAlgorithm("Parallel Merge Sort", "O(n log n / p)",
+            "Fork/join merge sort with parallel merges",
+            true, false, "O(n)", true,
+            SortingAlgorithms::parallelMergeSort, BenchmarkSorts::parallelMergeSort),
+        new BuiltinAlgorithm("Parallel Radix Sort", "O(n·w / p)",
+            "Base-256 LSD radix with per-thread histograms",
+            true, false, "O(n)", true,
+            SortingAlgorithms::parallelRadixSort, BenchmarkSorts::parallelRadixSort),
+        new BuiltinAlgorithm("Intro Sort", "O(n log n) worst",
+            "pdqsort-style quicksort with heap sort fallback",
+            false, true, "O(log n) stack", false,
+            SortingAlgorithms::introSort, BenchmarkSorts::introSort),
+        new BuiltinAlgorithm("Tim Sort", "O(n log n), O(n) on runs",
+            "Galloping natural merge sort (powersort order)",
+            true, false, "O(n)", false,
+            SortingAlgorithms::timSort, BenchmarkSorts::timSort));
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String getComplexity() {
+    return complexity;
+  }
+
+  @Override
+  public String getSummary() {
+    return summary;
+  }
+
+  @Override
+  public boolean isStable() {
+    return stable;
+  }
+
+  @Override
+  public boolean isInPlace() {
+    return inPlace;
+  }
+
+  @Override
+  public String getAuxiliaryMemory() {
+    return auxiliaryMemory;
+  }
+
+  @Override
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  @Override
+  public void sort(int[] array, AtomicBoolean stopRequested) {
+    benchmark.accept(new BenchmarkSorts(array, stopRequested));
+  }
+
+  @Override
+  public void visualize(SortingAlgorithms sorter) {
+    visual.accept(sorter);
+  }
+}
@@ -0,0 +1,91 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Times two algorithms on the same input through their uninstrumented sort
+// paths, alternating which one runs first, and estimates the ratio of their
+// run times from the per-pair log ratios.
+public final class HeadToHead {
+  private static final int MIN_PAIRS = 3;
+  private static final int MAX_PAIRS = 30;
+  private static final long BUDGET_NANOS = 2_000_000_000L;
+  // Two-sided 95% Student t quantiles for 1..30 degrees of freedom.
+  private static final double[] T_975 = {
+      12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+      2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+      2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+  };
+
+  // ratio is time(first) / time(second); values below 1 mean first is faster.
+  public record Estimate(double ratio, double low, double high, int pairs,
+      long firstMedianNanos, long secondMedianNanos) {
+
+    public boolean isSignificant() {
+      return high < 1 || low > 1;
+    }
+  }
+
+  // Returns null if the measurement was cancelled.
+  public static Estimate measure(SortAlgorithm first, SortAlgorithm second, int[] input,
+      AtomicBoolean cancelled) {
+    int[] work = new int[input.length];
+    time(first, input, work, cancelled);
+    time(second, input, work, cancelled);
+
+    long[] firstNanos = new long[MAX_PAIRS];
+    long[] secondNanos = new long[MAX_PAIRS];
+    double[] logRatios = new double[MAX_PAIRS];
+    long deadline = System.nanoTime() + BUDGET_NANOS;
+    int pairs = 0;
+    while (pairs < MAX_PAIRS && (pairs < MIN_PAIRS || System.nanoTime() < deadline)) {
+      if (cancelled.get())
+        return null;
+      if (pairs % 2 == 0) {
+        firstNanos[pairs] = time(first, input, work, cancelled);
+        secondNanos[pairs] = time(second, input, work, cancelled);
+      } else {
+        secondNanos[pairs] = time(second, input, work, cancelled);
+        firstNanos[pairs] = time(first, input, work, cancelled);
+      }
+      logRatios[pairs] = Math.log((double) Math.max(1, firstNanos[pairs])
+          / Math.max(1, secondNanos[pairs]));
+      pairs++;
+    }
+    if (cancelled.get())
+      return null;
+
+    double mean = 0;
+    for (int i = 0; i < pairs; i++) {
+      mean += logRatios[i];
+    }
+    mean /= pairs;
+    double variance = 0;
+    for (int i = 0; i < pairs; i++) {
+      variance += (logRatios[i] - mean) * (logRatios[i] - mean);
+    }
+    variance /= pairs - 1;
+    double halfWidth = T_975[Math.min(pairs - 1, T_975.length) - 1] * Math.sqrt(variance / pairs);
+
+    return new Estimate(Math.exp(mean), Math.exp(mean - halfWidth), Math.exp(mean + halfWidth),
+        pairs, median(firstNanos, pairs), median(secondNanos, pairs));
+  }
+
+  private static long time(SortAlgorithm algorithm, int[] input, int[] work,
+      AtomicBoolean cancelled) {
+    System.arraycopy(input, 0, work, 0, input.length);
+    long start = System.nanoTime();
+    algorithm.sort(work, cancelled);
+    return System.nanoTime() - start;
+  }
+
+  private static long median(long[] values, int count) {
+    long[] sorted = Arrays.copyOf(values, count);
+    Arrays.sort(sorted);
+    return sorted[count / 2];
+  }
+
+  private HeadToHead() {
+    // Prevent instantiation
+  }
+}
@@ -0,0 +1,44 @@
+package algorithms;
+
+// Digit and histogram helpers shared by the visual and benchmark base-256
+// LSD radix sorts.
+final class Radix256 {
+  static final int BITS = 8;
+  static final int RADIX = 1 << BITS;
+
+  // The top byte has its sign bit flipped so negative keys order first.
+  static int digit(int v, int shift) {
+    int digit = (v >>> shift) & (RADIX - 1);
+    return shift == Integer.SIZE - BITS ? digit ^ (RADIX >>> 1) : digit;
+  }
+
+  // Turns per-chunk digit counts into per-chunk scatter offsets, digit-major so
+  // each chunk's keys land after those of earlier chunks. Returns true when
+  // every key shares one digit and the pass can be skipped.
+  static boolean prefixSumOrSkip(int[][] histograms, int n) {
+    int running = 0;
+    for (int d = 0; d < RADIX; d++) {
+      int digitTotal = 0;
+      for (int[] hist : histograms) {
+        digitTotal += hist[d];
+      }
+      if (digitTotal == n) {
+        return true;
+      }
+      for (int[] hist : histograms) {
+        int count = hist[d];
+        hist[d] = running;
+        running += count;
+      }
+    }
+    return false;
+  }
+
+  static int chunkStart(int n, int chunks, int c) {
+    return (int) ((long) n * c / chunks);
+  }
+
+  private Radix256() {
+    // Prevent instantiation
+  }
+}
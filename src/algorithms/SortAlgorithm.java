@@ -0,0 +1,36 @@
+package algorithms;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Service interface for sorting algorithms. Built-ins are registered by
+// AlgorithmRegistry; extra implementations are discovered with ServiceLoader
+// from META-INF/services/algorithms.SortAlgorithm on the classpath.
+public interface SortAlgorithm {
+  String getName();
+
+  String getComplexity();
+
+  String getSummary();
+
+  default String getDescription() {
+    return getComplexity() + " - " + getSummary();
+  }
+
+  boolean isStable();
+
+  boolean isInPlace();
+
+  String getAuxiliaryMemory();
+
+  boolean isParallel();
+
+  // Uninstrumented sort used by benchmark mode, the CLI and JMH.
+  void sort(int[] array, AtomicBoolean stopRequested);
+
+  // Instrumented sort for live and recorded runs. Algorithms without their
+  // own instrumentation are animated as the writes that turn the input into
+  // their result.
+  default void visualize(SortingAlgorithms sorter) {
+    sorter.showResultOf(this);
+  }
+}
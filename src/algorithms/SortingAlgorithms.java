@@ -1,34 +1,65 @@
 package algorithms;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
 
-import audio.ToneGenerator;
+import audio.Voice;
+import model.PacedTime;
+import model.Phase;
+import model.RunMetrics;
+import model.WorkerPools;
+import trace.OperationTrace;
+import trace.TraceSink;
 import ui.callbacks.VisualizationCallback;
 
 public class SortingAlgorithms {
+  // Set while this thread's CPU time is already counted, by the run itself
+  // or by an enclosing fork/join task.
+  private static final ThreadLocal<boolean[]> CPU_COUNTED = ThreadLocal.withInitial(() -> new boolean[1]);
+
   private final int[] array;
   private final VisualizationCallback callback;
   private final AtomicBoolean stopRequested;
   private final boolean soundEnabled;
-  private final ToneGenerator toneGenerator;
+  private final Voice voice;
+  private TraceSink trace;
+  private int parallelThreshold;
+  private boolean parallel = false;
+  private int[] mergeBuffer = new int[0];
+  private int minGallop = BenchmarkSorts.MIN_GALLOP;
+  // Where gallops through the merge buffer are shown: the merge destination.
+  private int bufferDest;
 
   public SortingAlgorithms(int[] array, VisualizationCallback callback,
-      AtomicBoolean stopRequested, boolean soundEnabled,
-      ToneGenerator toneGenerator) {
+      AtomicBoolean stopRequested, boolean soundEnabled, Voice voice) {
     this.array = array;
     this.callback = callback;
     this.stopRequested = stopRequested;
     this.soundEnabled = soundEnabled;
-    this.toneGenerator = toneGenerator;
+    this.voice = voice;
+    int workers = Runtime.getRuntime().availableProcessors();
+    this.parallelThreshold = Math.max(8, array.length / (2 * workers));
+  }
+
+  public void setParallelThreshold(int parallelThreshold) {
+    this.parallelThreshold = Math.max(2, parallelThreshold);
+  }
+
+  public void recordTo(TraceSink trace) {
+    this.trace = trace;
   }
 
   public void bubbleSort() {
     int n = array.length;
     for (int i = 0; i < n - 1 && !stopRequested.get(); i++) {
       for (int j = 0; j < n - i - 1 && !stopRequested.get(); j++) {
-        highlight(j, j + 1);
-        compare(array[j], array[j + 1]);
+        compare(j, j + 1);
         if (array[j] > array[j + 1]) {
           swap(j, j + 1);
         }
@@ -43,8 +74,7 @@ public class SortingAlgorithms {
     for (int i = 0; i < n - 1 && !stopRequested.get(); i++) {
       int min = i;
       for (int j = i + 1; j < n && !stopRequested.get(); j++) {
-        highlight(min, j);
-        compare(array[min], array[j]);
+        compare(min, j);
         if (array[j] < array[min]) {
           min = j;
         }
@@ -62,21 +92,17 @@ public class SortingAlgorithms {
       int key = array[i];
       int j = i - 1;
       while (j >= 0 && !stopRequested.get()) {
-        highlight(j, j + 1);
-        compare(array[j], key);
+        compare(j, j + 1, array[j], key);
         if (array[j] > key) {
-          array[j + 1] = array[j];
-          incrementSwaps();
+          write(j + 1, array[j]);
           playSwap(array[j], key);
-          repaintBars();
           stepDelay();
           j--;
         } else {
           break;
         }
       }
-      array[j + 1] = key;
-      repaintBars();
+      write(j + 1, key);
       stepDelay();
     }
     clearHighlights();
@@ -95,6 +121,7 @@ public class SortingAlgorithms {
     mergeSort(l, m, tmp);
     mergeSort(m + 1, r, tmp);
 
+    long phase = phaseStart();
     int i = l, j = m + 1, k = l;
     while (i <= m || j <= r) {
       if (stopRequested.get())
@@ -105,17 +132,126 @@ public class SortingAlgorithms {
       } else {
         tmp[k++] = array[j++];
       }
-      highlight(i - 1, j - 1);
       compareSafe(i - 1, j - 1);
       stepDelay();
     }
 
     for (k = l; k <= r; k++) {
-      array[k] = tmp[k];
-      incrementSwaps();
-      repaintBars();
+      write(k, tmp[k]);
       stepDelay();
     }
+    phaseEnd(Phase.MERGE, phase);
+  }
+
+  public void parallelMergeSort() {
+    int[] tmp = new int[array.length];
+    runParallel(() -> parallelMergeSort(0, array.length - 1, tmp));
+    clearHighlights();
+  }
+
+  private void parallelMergeSort(int l, int r, int[] tmp) {
+    if (stopRequested.get() || l >= r)
+      return;
+    if (r - l + 1 <= parallelThreshold) {
+      mergeSort(l, r, tmp);
+      return;
+    }
+
+    int m = (l + r) >>> 1;
+    invokeAll(null, () -> parallelMergeSort(l, m, tmp), () -> parallelMergeSort(m + 1, r, tmp));
+    long phase = phaseStart();
+    LongAdder forked = new LongAdder();
+    parallelMerge(tmp, l, m + 1, m + 1, r + 1, l, forked);
+    parallelCopyBack(tmp, l, r + 1, forked);
+    phaseEnd(Phase.MERGE, phase, forked);
+  }
+
+  // Merges array[a1, a2) and array[b1, b2) into tmp starting at k. Large merges
+  // are split around the middle of the longer run, with the matching split
+  // point in the other run found by binary search.
+  private void parallelMerge(int[] tmp, int a1, int a2, int b1, int b2, int k, LongAdder forked) {
+    if (stopRequested.get())
+      return;
+    if ((a2 - a1) + (b2 - b1) <= parallelThreshold) {
+      mergeRangesInto(tmp, a1, a2, b1, b2, k);
+      return;
+    }
+
+    int ma;
+    int mb;
+    if (a2 - a1 >= b2 - b1) {
+      ma = (a1 + a2) >>> 1;
+      mb = lowerBound(b1, b2, ma);
+    } else {
+      mb = (b1 + b2) >>> 1;
+      ma = upperBound(a1, a2, mb);
+    }
+    int split = k + (ma - a1) + (mb - b1);
+    invokeAll(forked,
+        () -> parallelMerge(tmp, a1, ma, b1, mb, k, forked),
+        () -> parallelMerge(tmp, ma, a2, mb, b2, split, forked));
+  }
+
+  private void mergeRangesInto(int[] tmp, int i, int iEnd, int j, int jEnd, int k) {
+    while (i < iEnd || j < jEnd) {
+      if (stopRequested.get())
+        return;
+
+      if (i < iEnd && j < jEnd) {
+        compare(i, j);
+        stepDelay();
+      }
+      if (j >= jEnd || (i < iEnd && array[i] <= array[j])) {
+        tmp[k++] = array[i++];
+      } else {
+        tmp[k++] = array[j++];
+      }
+    }
+  }
+
+  // First index in [lo, hi) whose value is >= array[key].
+  private int lowerBound(int lo, int hi, int key) {
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      compare(mid, key);
+      if (array[mid] < array[key]) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  // First index in [lo, hi) whose value is > array[key].
+  private int upperBound(int lo, int hi, int key) {
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      compare(mid, key);
+      if (array[mid] <= array[key]) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private void parallelCopyBack(int[] tmp, int lo, int hi, LongAdder forked) {
+    if (stopRequested.get())
+      return;
+    if (hi - lo <= parallelThreshold) {
+      for (int k = lo; k < hi; k++) {
+        write(k, tmp[k]);
+        stepDelay();
+      }
+      return;
+    }
+
+    int mid = (lo + hi) >>> 1;
+    invokeAll(forked,
+        () -> parallelCopyBack(tmp, lo, mid, forked),
+        () -> parallelCopyBack(tmp, mid, hi, forked));
   }
 
   public void quickSort() {
@@ -127,19 +263,18 @@ public class SortingAlgorithms {
     if (stopRequested.get() || low >= high)
       return;
 
+    long phase = phaseStart();
     int i = low, j = high;
     int pivot = array[(low + high) >>> 1];
 
     while (i <= j && !stopRequested.get()) {
       while (array[i] < pivot && !stopRequested.get()) {
-        highlight(i, -1);
-        compare(array[i], pivot);
+        compare(i, -1, array[i], pivot);
         i++;
         stepDelay();
       }
       while (array[j] > pivot && !stopRequested.get()) {
-        highlight(j, -1);
-        compare(array[j], pivot);
+        compare(j, -1, array[j], pivot);
         j--;
         stepDelay();
       }
@@ -150,17 +285,522 @@ public class SortingAlgorithms {
       }
     }
 
+    phaseEnd(Phase.PARTITION, phase);
+
     if (low < j)
       quickSort(low, j);
     if (i < high)
       quickSort(i, high);
   }
 
+  public void introSort() {
+    int n = array.length;
+    introSort(0, n, 32 - Integer.numberOfLeadingZeros(Math.max(1, n)));
+    clearHighlights();
+  }
+
+  private void introSort(int lo, int hi, int badAllowed) {
+    while (hi - lo > BenchmarkSorts.INSERTION_CUTOFF && !stopRequested.get()) {
+      int size = hi - lo;
+      long phase = phaseStart();
+      choosePivot(lo, hi);
+
+      int i = lo + 1;
+      int j = hi - 1;
+      boolean alreadyPartitioned = true;
+      while (!stopRequested.get()) {
+        while (i <= j && lessThan(i, lo)) {
+          i++;
+        }
+        while (lessThan(lo, j)) {
+          j--;
+        }
+        if (i >= j)
+          break;
+        swap(i, j);
+        alreadyPartitioned = false;
+        i++;
+        j--;
+      }
+      swap(lo, j);
+      phaseEnd(Phase.PARTITION, phase);
+
+      int leftSize = j - lo;
+      int rightSize = hi - j - 1;
+      if (leftSize < size / 8 || rightSize < size / 8) {
+        if (--badAllowed == 0) {
+          heapSortRange(lo, hi);
+          return;
+        }
+        breakPatterns(lo, j);
+        breakPatterns(j + 1, hi);
+      } else if (alreadyPartitioned
+          && partialInsertionSort(lo, j) && partialInsertionSort(j + 1, hi)) {
+        return;
+      }
+
+      if (leftSize < rightSize) {
+        introSort(lo, j, badAllowed);
+        lo = j + 1;
+      } else {
+        introSort(j + 1, hi, badAllowed);
+        hi = j;
+      }
+    }
+    partialInsertionSort(lo, hi, Integer.MAX_VALUE);
+  }
+
+  private void choosePivot(int lo, int hi) {
+    int size = hi - lo;
+    int mid = lo + size / 2;
+    int m;
+    if (size > BenchmarkSorts.NINTHER_THRESHOLD) {
+      int step = size / 8;
+      m = medianOf3(
+          medianOf3(lo, lo + step, lo + 2 * step),
+          medianOf3(mid - step, mid, mid + step),
+          medianOf3(hi - 1 - 2 * step, hi - 1 - step, hi - 1));
+    } else {
+      m = medianOf3(lo, mid, hi - 1);
+    }
+    if (m != lo) {
+      swap(lo, m);
+    }
+  }
+
+  private int medianOf3(int x, int y, int z) {
+    if (lessThan(x, y)) {
+      return lessThan(y, z) ? y : (lessThan(x, z) ? z : x);
+    }
+    return lessThan(x, z) ? x : (lessThan(y, z) ? z : y);
+  }
+
+  private void breakPatterns(int lo, int hi) {
+    int size = hi - lo;
+    if (size <= BenchmarkSorts.INSERTION_CUTOFF)
+      return;
+    int quarter = size / 4;
+    for (int k = -1; k <= 1; k++) {
+      swap(lo + quarter + k, lo + (size - 1) - quarter - k);
+    }
+  }
+
+  private boolean partialInsertionSort(int lo, int hi) {
+    return partialInsertionSort(lo, hi, BenchmarkSorts.PARTIAL_INSERTION_LIMIT);
+  }
+
+  private boolean partialInsertionSort(int lo, int hi, int moveLimit) {
+    int moves = 0;
+    for (int i = lo + 1; i < hi && !stopRequested.get(); i++) {
+      int key = array[i];
+      int j = i - 1;
+      while (j >= lo) {
+        compare(j, j + 1, array[j], key);
+        stepDelay();
+        if (array[j] <= key)
+          break;
+        write(j + 1, array[j]);
+        j--;
+      }
+      if (j + 1 != i) {
+        write(j + 1, key);
+        moves += i - j - 1;
+        if (moves > moveLimit)
+          return false;
+      }
+    }
+    return true;
+  }
+
+  private void heapSortRange(int lo, int hi) {
+    int n = hi - lo;
+    long phase = phaseStart();
+    for (int i = n / 2 - 1; i >= 0 && !stopRequested.get(); i--) {
+      siftDown(lo, n, i);
+    }
+    phaseEnd(Phase.HEAPIFY, phase);
+    for (int i = n - 1; i > 0 && !stopRequested.get(); i--) {
+      swap(lo, lo + i);
+      siftDown(lo, i, 0);
+    }
+  }
+
+  private void siftDown(int base, int n, int i) {
+    while (!stopRequested.get()) {
+      int largest = i;
+      int l = 2 * i + 1;
+      int r = l + 1;
+      if (l < n && lessThan(base + largest, base + l)) {
+        largest = l;
+      }
+      if (r < n && lessThan(base + largest, base + r)) {
+        largest = r;
+      }
+      if (largest == i)
+        return;
+      swap(base + i, base + largest);
+      i = largest;
+    }
+  }
+
+  // Instrumented array[i] < array[j].
+  private boolean lessThan(int i, int j) {
+    compare(i, j);
+    stepDelay();
+    return array[i] < array[j];
+  }
+
+  public void timSort() {
+    int n = array.length;
+    if (n < 2)
+      return;
+
+    int minRun = BenchmarkSorts.minRunLength(n);
+    int[] runBase = new int[64];
+    int[] runLen = new int[64];
+    int[] runPower = new int[64];
+    int stackSize = 0;
+
+    int s1 = 0;
+    int n1 = extendRun(0, n, minRun);
+    while (s1 + n1 < n && !stopRequested.get()) {
+      int s2 = s1 + n1;
+      int n2 = extendRun(s2, n, minRun);
+      showRuns(runBase, stackSize, s1, s2);
+      int power = BenchmarkSorts.nodePower(n, s1, s2, s2 + n2);
+      while (stackSize > 0 && runPower[stackSize - 1] > power && !stopRequested.get()) {
+        stackSize--;
+        mergeAdjacentRuns(runBase[stackSize], runLen[stackSize], n1);
+        s1 = runBase[stackSize];
+        n1 += runLen[stackSize];
+        showRuns(runBase, stackSize, s1, s2);
+      }
+      runBase[stackSize] = s1;
+      runLen[stackSize] = n1;
+      runPower[stackSize] = power;
+      stackSize++;
+      s1 = s2;
+      n1 = n2;
+    }
+    while (stackSize > 0 && !stopRequested.get()) {
+      stackSize--;
+      showRuns(runBase, stackSize + 1, s1);
+      mergeAdjacentRuns(runBase[stackSize], runLen[stackSize], n1);
+      n1 += runLen[stackSize];
+    }
+    showRuns(runBase, 0);
+    clearHighlights();
+  }
+
+  private int extendRun(int start, int n, int minRun) {
+    int end = start + 1;
+    if (end < n) {
+      if (lessThan(end++, start)) {
+        while (end < n && lessThan(end, end - 1)) {
+          end++;
+        }
+        for (int i = start, j = end - 1; i < j; i++, j--) {
+          swap(i, j);
+        }
+      } else {
+        while (end < n && !lessThan(end, end - 1)) {
+          end++;
+        }
+      }
+    }
+
+    int runLen = end - start;
+    if (runLen < minRun) {
+      int forced = Math.min(minRun, n - start);
+      for (int i = start + runLen; i < start + forced && !stopRequested.get(); i++) {
+        int key = array[i];
+        int lo = start;
+        int hi = i;
+        while (lo < hi) {
+          int mid = (lo + hi) >>> 1;
+          compare(mid, i);
+          stepDelay();
+          if (key < array[mid]) {
+            hi = mid;
+          } else {
+            lo = mid + 1;
+          }
+        }
+        for (int k = i; k > lo; k--) {
+          write(k, array[k - 1]);
+          stepDelay();
+        }
+        if (lo != i) {
+          write(lo, key);
+        }
+      }
+      runLen = forced;
+    }
+    return runLen;
+  }
+
+  private void mergeAdjacentRuns(int base1, int len1, int len2) {
+    long phase = phaseStart();
+    mergeAdjacentRunsGalloping(base1, len1, len2);
+    phaseEnd(Phase.MERGE, phase);
+  }
+
+  private void mergeAdjacentRunsGalloping(int base1, int len1, int len2) {
+    int base2 = base1 + len1;
+    int k = gallopRight(array[base2], array, base1, len1, 0);
+    base1 += k;
+    len1 -= k;
+    if (len1 == 0)
+      return;
+    len2 = gallopLeft(array[base1 + len1 - 1], array, base2, len2, len2 - 1);
+    if (len2 == 0)
+      return;
+
+    if (mergeBuffer.length < Math.min(len1, len2)) {
+      mergeBuffer = new int[Math.max(Math.min(len1, len2), Math.min(array.length, mergeBuffer.length * 2))];
+    }
+    if (len1 <= len2) {
+      mergeLo(base1, len1, base2, len2);
+    } else {
+      mergeHi(base1, len1, base2, len2);
+    }
+  }
+
+  private void mergeLo(int base1, int len1, int base2, int len2) {
+    int[] tmp = mergeBuffer;
+    System.arraycopy(array, base1, tmp, 0, len1);
+    int c1 = 0;
+    int c2 = base2;
+    int dest = base1;
+    int end2 = base2 + len2;
+
+    outer: while (c1 < len1 && c2 < end2 && !stopRequested.get()) {
+      int count1 = 0;
+      int count2 = 0;
+      while (count1 < minGallop && count2 < minGallop) {
+        compare(c2, dest, array[c2], tmp[c1]);
+        stepDelay();
+        if (array[c2] < tmp[c1]) {
+          write(dest++, array[c2++]);
+          count2++;
+          count1 = 0;
+          if (c2 == end2)
+            break outer;
+        } else {
+          write(dest++, tmp[c1++]);
+          count1++;
+          count2 = 0;
+          if (c1 == len1)
+            break outer;
+        }
+      }
+
+      while (!stopRequested.get()) {
+        bufferDest = dest;
+        int k1 = gallopRight(array[c2], tmp, c1, len1 - c1, 0);
+        for (int k = 0; k < k1; k++) {
+          write(dest++, tmp[c1++]);
+          stepDelay();
+        }
+        if (c1 == len1)
+          break outer;
+        write(dest++, array[c2++]);
+        if (c2 == end2)
+          break outer;
+
+        int k2 = gallopLeft(tmp[c1], array, c2, end2 - c2, 0);
+        for (int k = 0; k < k2; k++) {
+          write(dest++, array[c2++]);
+          stepDelay();
+        }
+        if (c2 == end2)
+          break outer;
+        write(dest++, tmp[c1++]);
+        if (c1 == len1)
+          break outer;
+
+        if (k1 < BenchmarkSorts.MIN_GALLOP && k2 < BenchmarkSorts.MIN_GALLOP) {
+          minGallop++;
+          break;
+        }
+        minGallop = Math.max(1, minGallop - 1);
+      }
+    }
+    while (c1 < len1) {
+      write(dest++, tmp[c1++]);
+      stepDelay();
+    }
+  }
+
+  private void mergeHi(int base1, int len1, int base2, int len2) {
+    int[] tmp = mergeBuffer;
+    System.arraycopy(array, base2, tmp, 0, len2);
+    int c1 = base1 + len1 - 1;
+    int c2 = len2 - 1;
+    int dest = base2 + len2 - 1;
+
+    outer: while (c1 >= base1 && c2 >= 0 && !stopRequested.get()) {
+      int count1 = 0;
+      int count2 = 0;
+      while (count1 < minGallop && count2 < minGallop) {
+        compare(c1, dest, array[c1], tmp[c2]);
+        stepDelay();
+        if (tmp[c2] < array[c1]) {
+          write(dest--, array[c1--]);
+          count1++;
+          count2 = 0;
+          if (c1 < base1)
+            break outer;
+        } else {
+          write(dest--, tmp[c2--]);
+          count2++;
+          count1 = 0;
+          if (c2 < 0)
+            break outer;
+        }
+      }
+
+      while (!stopRequested.get()) {
+        int k1 = (c1 - base1 + 1) - gallopRight(tmp[c2], array, base1, c1 - base1 + 1, c1 - base1);
+        for (int k = 0; k < k1; k++) {
+          write(dest--, array[c1--]);
+          stepDelay();
+        }
+        if (c1 < base1)
+          break outer;
+        write(dest--, tmp[c2--]);
+        if (c2 < 0)
+          break outer;
+
+        bufferDest = dest;
+        int k2 = (c2 + 1) - gallopLeft(array[c1], tmp, 0, c2 + 1, c2);
+        for (int k = 0; k < k2; k++) {
+          write(dest--, tmp[c2--]);
+          stepDelay();
+        }
+        if (c2 < 0)
+          break outer;
+        write(dest--, array[c1--]);
+        if (c1 < base1)
+          break outer;
+
+        if (k1 < BenchmarkSorts.MIN_GALLOP && k2 < BenchmarkSorts.MIN_GALLOP) {
+          minGallop++;
+          break;
+        }
+        minGallop = Math.max(1, minGallop - 1);
+      }
+    }
+    while (c2 >= 0) {
+      write(dest--, tmp[c2--]);
+      stepDelay();
+    }
+  }
+
+  // Same searches as BenchmarkSorts.gallopLeft/gallopRight, recording each
+  // probe as a comparison so replays count the same compares.
+  private int gallopLeft(int key, int[] a, int base, int len, int hint) {
+    int lastOfs = 0;
+    int ofs = 1;
+    if (key > probe(a, base + hint, key)) {
+      int maxOfs = len - hint;
+      while (ofs < maxOfs && key > probe(a, base + hint + ofs, key)) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0)
+          ofs = maxOfs;
+      }
+      ofs = Math.min(ofs, maxOfs);
+      lastOfs += hint;
+      ofs += hint;
+    } else {
+      int maxOfs = hint + 1;
+      while (ofs < maxOfs && key <= probe(a, base + hint - ofs, key)) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0)
+          ofs = maxOfs;
+      }
+      ofs = Math.min(ofs, maxOfs);
+      int t = lastOfs;
+      lastOfs = hint - ofs;
+      ofs = hint - t;
+    }
+
+    lastOfs++;
+    while (lastOfs < ofs) {
+      int m = lastOfs + ((ofs - lastOfs) >>> 1);
+      if (key > probe(a, base + m, key)) {
+        lastOfs = m + 1;
+      } else {
+        ofs = m;
+      }
+    }
+    return ofs;
+  }
+
+  private int gallopRight(int key, int[] a, int base, int len, int hint) {
+    int lastOfs = 0;
+    int ofs = 1;
+    if (key < probe(a, base + hint, key)) {
+      int maxOfs = hint + 1;
+      while (ofs < maxOfs && key < probe(a, base + hint - ofs, key)) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0)
+          ofs = maxOfs;
+      }
+      ofs = Math.min(ofs, maxOfs);
+      int t = lastOfs;
+      lastOfs = hint - ofs;
+      ofs = hint - t;
+    } else {
+      int maxOfs = len - hint;
+      while (ofs < maxOfs && key >= probe(a, base + hint + ofs, key)) {
+        lastOfs = ofs;
+        ofs = (ofs << 1) + 1;
+        if (ofs <= 0)
+          ofs = maxOfs;
+      }
+      ofs = Math.min(ofs, maxOfs);
+      lastOfs += hint;
+      ofs += hint;
+    }
+
+    lastOfs++;
+    while (lastOfs < ofs) {
+      int m = lastOfs + ((ofs - lastOfs) >>> 1);
+      if (key < probe(a, base + m, key)) {
+        ofs = m;
+      } else {
+        lastOfs = m + 1;
+      }
+    }
+    return ofs;
+  }
+
+  private int probe(int[] a, int index, int key) {
+    compare(a == array ? index : bufferDest, -1, a[index], key);
+    stepDelay();
+    return a[index];
+  }
+
+  private void showRuns(int[] runBase, int stackSize, int... current) {
+    if (callback == null)
+      return;
+    int[] starts = new int[stackSize + current.length];
+    System.arraycopy(runBase, 0, starts, 0, stackSize);
+    System.arraycopy(current, 0, starts, stackSize, current.length);
+    callback.onRunBoundaries(starts);
+  }
+
   public void heapSort() {
     int n = array.length;
+    long phase = phaseStart();
     for (int i = n / 2 - 1; i >= 0 && !stopRequested.get(); i--) {
       heapify(n, i);
     }
+    phaseEnd(Phase.HEAPIFY, phase);
     for (int i = n - 1; i > 0 && !stopRequested.get(); i--) {
       swap(0, i);
       heapify(i, 0);
@@ -175,16 +815,14 @@ public class SortingAlgorithms {
       int r = 2 * i + 2;
 
       if (l < n) {
-        highlight(largest, l);
-        compare(array[largest], array[l]);
+        compare(largest, l);
         if (array[l] > array[largest]) {
           largest = l;
         }
         stepDelay();
       }
       if (r < n) {
-        highlight(largest, r);
-        compare(array[largest], array[r]);
+        compare(largest, r);
         if (array[r] > array[largest]) {
           largest = r;
         }
@@ -207,17 +845,13 @@ public class SortingAlgorithms {
         int temp = array[i];
         int j = i;
         while (j >= gap && array[j - gap] > temp && !stopRequested.get()) {
-          highlight(j, j - gap);
-          compare(array[j - gap], temp);
-          array[j] = array[j - gap];
-          incrementSwaps();
+          compare(j, j - gap, array[j - gap], temp);
+          write(j, array[j - gap]);
           playSwap(array[j], temp);
-          repaintBars();
           stepDelay();
           j -= gap;
         }
-        array[j] = temp;
-        repaintBars();
+        write(j, temp);
         stepDelay();
       }
     }
@@ -232,8 +866,7 @@ public class SortingAlgorithms {
     while (swapped && !stopRequested.get()) {
       swapped = false;
       for (int i = start; i < end && !stopRequested.get(); i++) {
-        highlight(i, i + 1);
-        compare(array[i], array[i + 1]);
+        compare(i, i + 1);
         if (array[i] > array[i + 1]) {
           swap(i, i + 1);
           swapped = true;
@@ -247,8 +880,7 @@ public class SortingAlgorithms {
       end--;
 
       for (int i = end - 1; i >= start && !stopRequested.get(); i--) {
-        highlight(i, i + 1);
-        compare(array[i], array[i + 1]);
+        compare(i, i + 1);
         if (array[i] > array[i + 1]) {
           swap(i, i + 1);
           swapped = true;
@@ -276,8 +908,7 @@ public class SortingAlgorithms {
 
       swapped = false;
       for (int i = 0; i + gap < n && !stopRequested.get(); i++) {
-        highlight(i, i + gap);
-        compare(array[i], array[i + gap]);
+        compare(i, i + gap);
         if (array[i] > array[i + gap]) {
           swap(i, i + gap);
           swapped = true;
@@ -294,8 +925,7 @@ public class SortingAlgorithms {
       if (pos == 0 || array[pos] >= array[pos - 1]) {
         pos++;
       } else {
-        highlight(pos, pos - 1);
-        compare(array[pos], array[pos - 1]);
+        compare(pos, pos - 1);
         swap(pos, pos - 1);
         pos--;
       }
@@ -306,22 +936,24 @@ public class SortingAlgorithms {
 
   public void radixSort() {
     int max = Arrays.stream(array).max().orElse(0);
+    int[] output = new int[array.length];
+    int[] count = new int[10];
     for (int exp = 1; max / exp > 0 && !stopRequested.get(); exp *= 10) {
-      countingSortByDigit(exp);
+      long phase = phaseStart();
+      countingSortByDigit(exp, output, count);
+      phaseEnd(Phase.DIGIT_PASS, phase);
     }
     clearHighlights();
   }
 
-  private void countingSortByDigit(int exp) {
+  private void countingSortByDigit(int exp, int[] output, int[] count) {
     int n = array.length;
-    int[] output = new int[n];
-    int[] count = new int[10];
+    Arrays.fill(count, 0);
 
     for (int i = 0; i < n; i++) {
       int digit = (array[i] / exp) % 10;
       count[digit]++;
-      highlight(i, -1);
-      incrementComparisons();
+      read(i);
       stepDelay();
     }
 
@@ -333,19 +965,68 @@ public class SortingAlgorithms {
       int digit = (array[i] / exp) % 10;
       output[count[digit] - 1] = array[i];
       count[digit]--;
-      highlight(i, count[digit]);
-      incrementSwaps();
+      read(i);
       stepDelay();
     }
 
     for (int i = 0; i < n && !stopRequested.get(); i++) {
-      array[i] = output[i];
-      highlight(i, -1);
-      repaintBars();
+      write(i, output[i]);
       stepDelay();
     }
   }
 
+  public void parallelRadixSort() {
+    int n = array.length;
+    if (n < 2)
+      return;
+
+    int chunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+        n / Math.max(1, parallelThreshold)));
+    int[][] histograms = new int[chunks][Radix256.RADIX];
+    int[] buffer = new int[n];
+
+    runParallel(() -> {
+      for (int shift = 0; shift < Integer.SIZE && !stopRequested.get(); shift += Radix256.BITS) {
+        int pass = shift;
+        long phase = phaseStart();
+        LongAdder forked = new LongAdder();
+        forEachChunk(chunks, forked, c -> {
+          int[] hist = histograms[c];
+          Arrays.fill(hist, 0);
+          int end = Radix256.chunkStart(n, chunks, c + 1);
+          for (int i = Radix256.chunkStart(n, chunks, c); i < end && !stopRequested.get(); i++) {
+            hist[Radix256.digit(array[i], pass)]++;
+            read(i);
+            stepDelay();
+          }
+        });
+        if (stopRequested.get() || Radix256.prefixSumOrSkip(histograms, n)) {
+          phaseEnd(Phase.DIGIT_PASS, phase, forked);
+          continue;
+        }
+
+        forEachChunk(chunks, forked, c -> {
+          int[] offsets = histograms[c];
+          int end = Radix256.chunkStart(n, chunks, c + 1);
+          for (int i = Radix256.chunkStart(n, chunks, c); i < end && !stopRequested.get(); i++) {
+            buffer[offsets[Radix256.digit(array[i], pass)]++] = array[i];
+            read(i);
+            stepDelay();
+          }
+        });
+        forEachChunk(chunks, forked, c -> {
+          int end = Radix256.chunkStart(n, chunks, c + 1);
+          for (int i = Radix256.chunkStart(n, chunks, c); i < end && !stopRequested.get(); i++) {
+            write(i, buffer[i]);
+            stepDelay();
+          }
+        });
+        phaseEnd(Phase.DIGIT_PASS, phase, forked);
+      }
+    });
+    clearHighlights();
+  }
+
   public void countingSort() {
     int max = Arrays.stream(array).max().orElse(0);
     int min = Arrays.stream(array).min().orElse(0);
@@ -356,8 +1037,7 @@ public class SortingAlgorithms {
 
     for (int i = 0; i < array.length && !stopRequested.get(); i++) {
       count[array[i] - min]++;
-      highlight(i, -1);
-      incrementComparisons();
+      read(i);
       stepDelay();
     }
 
@@ -368,33 +1048,164 @@ public class SortingAlgorithms {
     for (int i = array.length - 1; i >= 0 && !stopRequested.get(); i--) {
       output[count[array[i] - min] - 1] = array[i];
       count[array[i] - min]--;
-      highlight(i, -1);
-      incrementSwaps();
+      read(i);
       stepDelay();
     }
 
     for (int i = 0; i < array.length && !stopRequested.get(); i++) {
-      array[i] = output[i];
-      highlight(i, -1);
-      repaintBars();
+      write(i, output[i]);
       stepDelay();
     }
     clearHighlights();
   }
 
+  // Fallback for registered algorithms without instrumentation: sort a copy
+  // with the algorithm itself, then animate the writes that produce it.
+  public void showResultOf(SortAlgorithm algorithm) {
+    int[] sorted = Arrays.copyOf(array, array.length);
+    algorithm.sort(sorted, stopRequested);
+    for (int i = 0; i < array.length && !stopRequested.get(); i++) {
+      if (array[i] != sorted[i]) {
+        write(i, sorted[i]);
+        stepDelay();
+      }
+    }
+    clearHighlights();
+  }
+
+  // Phases are timed in busy time, leaving out paced waits, so they show
+  // the sort's work rather than the animation speed.
+  private long phaseStart() {
+    return callback != null ? PacedTime.busyNanos() : 0;
+  }
+
+  private void phaseEnd(Phase phase, long start) {
+    phaseEnd(phase, start, null);
+  }
+
+  // forked collects the busy time of tasks the phase ran on the pool.
+  private void phaseEnd(Phase phase, long start, LongAdder forked) {
+    if (callback != null) {
+      long nanos = PacedTime.busyNanos() - start;
+      callback.onPhaseTime(phase, forked != null ? nanos + forked.sum() : nanos);
+    }
+  }
+
   private void swap(int i, int j) {
     int t = array[i];
     array[i] = array[j];
     array[j] = t;
+    record(OperationTrace.SWAP, i, j);
     highlight(i, j);
     incrementSwaps();
     playSwap(array[i], array[j]);
-    repaintBars();
+    arrayChanged(i, j);
     stepDelay();
   }
 
+  private void write(int i, int value) {
+    array[i] = value;
+    record(OperationTrace.WRITE, i, value);
+    highlight(i, -1);
+    incrementWrites();
+    arrayChanged(i, -1);
+  }
+
+  private void read(int i) {
+    record(OperationTrace.READ, i, -1);
+    highlight(i, -1);
+    incrementReads();
+  }
+
+  private void runParallel(Runnable body) {
+    parallel = true;
+    // The run measures this thread itself, so a task it happens to execute
+    // while waiting must not be counted again.
+    boolean[] counted = CPU_COUNTED.get();
+    boolean wasCounted = counted[0];
+    counted[0] = true;
+    try {
+      WorkerPools.parallel().invoke(ForkJoinTask.adapt(() -> runForked(null, body)));
+    } finally {
+      counted[0] = wasCounted;
+      parallel = false;
+    }
+  }
+
+  private void forEachChunk(int chunks, LongAdder forked, IntConsumer body) {
+    Runnable[] tasks = new Runnable[chunks];
+    for (int c = 0; c < chunks; c++) {
+      int chunk = c;
+      tasks[c] = () -> body.accept(chunk);
+    }
+    invokeAll(forked, tasks);
+  }
+
+  // Busy time of the tasks goes to forked, when a phase is being timed, and
+  // the time this thread spends joining them comes off it, so work done
+  // inline is not counted twice.
+  private void invokeAll(LongAdder forked, Runnable... bodies) {
+    List<ForkJoinTask<?>> tasks = new ArrayList<>(bodies.length);
+    for (Runnable body : bodies) {
+      tasks.add(ForkJoinTask.adapt(() -> runForked(forked, body)));
+    }
+    long start = forked != null && callback != null ? PacedTime.busyNanos() : 0;
+    ForkJoinTask.invokeAll(tasks);
+    if (forked != null && callback != null) {
+      forked.add(start - PacedTime.busyNanos());
+    }
+  }
+
+  // Reports the CPU time of the outermost task on each worker, which covers
+  // anything it runs inline or while helping a join.
+  private void runForked(LongAdder forked, Runnable body) {
+    if (callback == null) {
+      body.run();
+      return;
+    }
+    boolean[] counted = CPU_COUNTED.get();
+    boolean outermost = !counted[0];
+    long cpuStart = outermost ? RunMetrics.threadCpuNanos() : 0;
+    long start = PacedTime.busyNanos();
+    counted[0] = true;
+    try {
+      body.run();
+    } finally {
+      if (forked != null) {
+        forked.add(PacedTime.busyNanos() - start);
+      }
+      if (outermost) {
+        counted[0] = false;
+        long cpuEnd = RunMetrics.threadCpuNanos();
+        if (cpuStart >= 0 && cpuEnd >= 0) {
+          callback.onWorkerCpuTime(cpuEnd - cpuStart);
+        }
+      }
+    }
+  }
+
+  private void record(int opcode, int a, int b) {
+    if (trace == null)
+      return;
+    if (parallel) {
+      synchronized (trace) {
+        trace.append(opcode, a, b);
+      }
+    } else {
+      trace.append(opcode, a, b);
+    }
+  }
+
   private void highlight(int i, int j) {
-    if (callback != null) {
+    if (callback == null)
+      return;
+    if (parallel) {
+      // Each fork/join worker gets its own highlight slot so concurrent
+      // merges show up as separate fronts.
+      Thread t = Thread.currentThread();
+      int front = t instanceof ForkJoinWorkerThread w ? w.getPoolIndex() + 1 : 0;
+      callback.onHighlightFront(front, i, j);
+    } else {
       callback.onHighlight(i, j);
     }
   }
@@ -405,9 +1216,9 @@ public class SortingAlgorithms {
     }
   }
 
-  private void repaintBars() {
+  private void arrayChanged(int i, int j) {
     if (callback != null) {
-      callback.onRepaint();
+      callback.onArrayChanged(i, j);
     }
   }
 
@@ -423,22 +1234,42 @@ public class SortingAlgorithms {
     }
   }
 
-  private void compare(int v1, int v2) {
+  private void incrementReads() {
+    if (callback != null) {
+      callback.onIncrementReads();
+    }
+  }
+
+  private void incrementWrites() {
+    if (callback != null) {
+      callback.onIncrementWrites();
+    }
+  }
+
+  private void compare(int i, int j) {
+    compare(i, j, array[i], array[j]);
+  }
+
+  private void compare(int i, int j, int v1, int v2) {
+    record(OperationTrace.COMPARE, i, j);
+    highlight(i, j);
     incrementComparisons();
     if (soundEnabled) {
-      toneGenerator.playCompare(v1, v2);
+      voice.playCompare(v1, v2);
     }
   }
 
   private void compareSafe(int i, int j) {
     if (i >= 0 && j >= 0 && i < array.length && j < array.length) {
-      compare(array[i], array[j]);
+      compare(i, j);
+    } else {
+      highlight(i, j);
     }
   }
 
   private void playSwap(int v1, int v2) {
     if (soundEnabled) {
-      toneGenerator.playSwap(v1, v2);
+      voice.playSwap(v1, v2);
     }
   }
 
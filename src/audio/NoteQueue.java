@@ -0,0 +1,60 @@
+package audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded lock-free queue of packed note events: any number of sorter
+// threads offer, the audio render thread polls. Each slot carries a sequence
+// number that tells producers and the consumer whose turn it is, so neither
+// side blocks; a full queue just rejects the event, which is always stale by
+// the time it could be played anyway.
+final class NoteQueue {
+  static final long EMPTY = -1;
+
+  private final int mask;
+  private final long[] events;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+  private long head;
+
+  NoteQueue(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    this.mask = size - 1;
+    this.events = new long[size];
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  boolean offer(long event) {
+    long pos = tail.get();
+    while (true) {
+      int slot = (int) pos & mask;
+      long diff = sequences.get(slot) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          events[slot] = event;
+          sequences.set(slot, pos + 1);
+          return true;
+        }
+        pos = tail.get();
+      } else if (diff < 0) {
+        return false;
+      } else {
+        pos = tail.get();
+      }
+    }
+  }
+
+  // Consumer thread only.
+  long poll() {
+    int slot = (int) head & mask;
+    if (sequences.get(slot) != head + 1)
+      return EMPTY;
+    long event = events[slot];
+    sequences.set(slot, head + mask + 1);
+    head++;
+    return event;
+  }
+}
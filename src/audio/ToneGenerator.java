@@ -1,114 +1,200 @@
 package audio;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+// Sorter threads only pack a note into a lock-free queue; one render thread
+// synthesizes it into a small SourceDataLine buffer, so the audio lags the
+// sort by at most one note plus a few milliseconds of buffered samples.
+// Each sorter plays through its own Voice, so sorters racing each other
+// sound at the same time, panned apart. Nothing touches the audio system
+// until openAsync(), which opens the line off the calling thread.
+public class ToneGenerator {
+  public enum State {
+    CLOSED, OPENING, READY, UNAVAILABLE
+  }
 
-import javax.sound.midi.MidiChannel;
-import javax.sound.midi.MidiSystem;
-import javax.sound.midi.MidiUnavailableException;
-import javax.sound.midi.Synthesizer;
+  public static final int MAX_VOICES = 8;
+  private static final int NOTES_PER_SECOND = 20;
+  private static final float MAX_PAN = 0.8f;
+  private static final int BLOCK_FRAMES = 256;
+  private static final int LINE_BUFFER_FRAMES = BLOCK_FRAMES * 4;
+  private static final long BLOCK_NANOS = BLOCK_FRAMES * 1_000_000_000L / ToneSynth.SAMPLE_RATE;
 
-public class ToneGenerator {
-  private Synthesizer synth;
-  private MidiChannel channel;
-  private final Object lock = new Object();
-  private boolean available = false;
+  private final NoteQueue queue = new NoteQueue(256);
+  private final Voice[] voices = new Voice[MAX_VOICES];
+  private final ToneSynth[] synths = new ToneSynth[MAX_VOICES];
   private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+  // Bumped by every stopAllSounds() so the render thread still cuts the
+  // current notes when reset() follows before it gets to run.
+  private final AtomicInteger stops = new AtomicInteger();
+  private volatile boolean running = false;
+  private final AtomicBoolean openRequested = new AtomicBoolean(false);
+  private volatile State state = State.CLOSED;
+  private volatile boolean closed = false;
+  private SourceDataLine line;
+  private Thread renderThread;
 
   public ToneGenerator() {
+    for (int v = 0; v < MAX_VOICES; v++) {
+      voices[v] = new Voice(this, v, NOTES_PER_SECOND);
+      synths[v] = new ToneSynth();
+    }
+  }
+
+  // Opening the mixer can take hundreds of milliseconds, so it happens on an
+  // "audio-init" thread; onDone runs there once getState() is READY or
+  // UNAVAILABLE. Only the first call does anything.
+  public void openAsync(Runnable onDone) {
+    if (!openRequested.compareAndSet(false, true))
+      return;
+    state = State.OPENING;
+    Thread initThread = new Thread(() -> {
+      open();
+      onDone.run();
+    }, "audio-init");
+    initThread.setDaemon(true);
+    initThread.start();
+  }
+
+  private void open() {
     try {
-      synth = MidiSystem.getSynthesizer();
-      synth.open();
-      MidiChannel[] channels = synth.getChannels();
-      if (channels != null && channels.length > 0) {
-        channel = channels[0];
-        channel.programChange(0);
-        available = true;
+      AudioFormat format = new AudioFormat(ToneSynth.SAMPLE_RATE, 16, 2, true, false);
+      SourceDataLine opened = AudioSystem.getSourceDataLine(format);
+      opened.open(format, LINE_BUFFER_FRAMES * format.getFrameSize());
+      synchronized (this) {
+        if (closed) {
+          opened.close();
+          state = State.UNAVAILABLE;
+          return;
+        }
+        line = opened;
+        line.start();
+        running = true;
+        renderThread = new Thread(this::render, "audio-render");
+        renderThread.setDaemon(true);
+        renderThread.start();
       }
-    } catch (MidiUnavailableException e) {
-      System.err.println("MIDI not available: " + e.getMessage());
-      available = false;
+      state = State.READY;
+    } catch (LineUnavailableException | IllegalArgumentException e) {
+      System.err.println("Audio output not available: " + e.getMessage());
+      state = State.UNAVAILABLE;
     }
   }
 
-  public void playCompare(int v1, int v2) {
-    if (!available || stopRequested.get())
-      return;
-    playPair(v1, v2, 40, 25);
+  // Voice for sorter index of count running side by side, panned evenly from
+  // left to right; a single sorter plays centered.
+  public Voice voice(int index, int count) {
+    Voice voice = voices[index % MAX_VOICES];
+    float position = count > 1 ? (float) (index % MAX_VOICES) / (Math.min(count, MAX_VOICES) - 1) : 0.5f;
+    voice.setPan(MAX_PAN * (2 * position - 1));
+    return voice;
   }
 
-  public void playSwap(int v1, int v2) {
-    if (!available || stopRequested.get())
-      return;
-    playPair(v1, v2, 80, 35);
+  boolean isAccepting() {
+    return state == State.READY && !stopRequested.get();
   }
 
-  private void playPair(int v1, int v2, int velocity, int durationMs) {
-    if (channel == null || stopRequested.get())
-      return;
+  void offer(long event) {
+    queue.offer(event);
+  }
 
-    int pitch1 = mapToPitch(v1);
-    int pitch2 = mapToPitch(v2);
-
-    Thread toneThread = new Thread(() -> {
-      synchronized (lock) {
-        try {
-          if (stopRequested.get())
-            return;
-
-          channel.noteOn(pitch1, velocity);
-          Thread.sleep(durationMs);
-          channel.noteOff(pitch1);
-
-          if (stopRequested.get()) {
-            channel.noteOff(pitch1);
-            return;
-          }
-
-          channel.noteOn(pitch2, velocity);
-          Thread.sleep(durationMs);
-          channel.noteOff(pitch2);
-        } catch (InterruptedException e) {
-          channel.allNotesOff();
-          Thread.currentThread().interrupt();
+  private void render() {
+    byte[] block = new byte[BLOCK_FRAMES * 4];
+    float[] mix = new float[BLOCK_FRAMES * 2];
+    long[] pending = new long[MAX_VOICES];
+    Arrays.fill(pending, NoteQueue.EMPTY);
+    int handledStops = stops.get();
+    while (running) {
+      if (handledStops != stops.get()) {
+        handledStops = stops.get();
+        while (queue.poll() != NoteQueue.EMPTY) {
+        }
+        for (int v = 0; v < MAX_VOICES; v++) {
+          pending[v] = NoteQueue.EMPTY;
+          synths[v].silence();
         }
+        line.stop();
+        line.flush();
+        line.start();
+      }
+
+      // Notes queued while a voice was still playing are stale: only the
+      // newest per voice is kept.
+      for (long event = queue.poll(); event != NoteQueue.EMPTY; event = queue.poll()) {
+        pending[ToneSynth.voiceOf(event) % MAX_VOICES] = event;
+      }
+      boolean playing = false;
+      for (int v = 0; v < MAX_VOICES; v++) {
+        if (!synths[v].isPlaying() && pending[v] != NoteQueue.EMPTY) {
+          synths[v].start(pending[v]);
+          pending[v] = NoteQueue.EMPTY;
+        }
+        playing |= synths[v].isPlaying();
+      }
+      if (!playing) {
+        LockSupport.parkNanos(BLOCK_NANOS);
+        continue;
       }
-    }, "tone-player");
-    toneThread.setDaemon(true);
-    toneThread.start();
-  }
 
-  private int mapToPitch(int value) {
-    value = Math.max(1, value);
-    double normalized = Math.min(1.0, Math.log(1 + value) / Math.log(1000));
-    return 36 + (int) Math.round(normalized * 60);
+      Arrays.fill(mix, 0f);
+      for (int v = 0; v < MAX_VOICES; v++) {
+        if (synths[v].isPlaying()) {
+          // Constant-power panning keeps a panned voice as loud as a centered one.
+          double angle = (voices[v].getPan() + 1) * Math.PI / 4;
+          synths[v].mixInto(mix, BLOCK_FRAMES, (float) Math.cos(angle), (float) Math.sin(angle));
+        }
+      }
+      for (int i = 0; i < mix.length; i++) {
+        int sample = (int) (Math.max(-1f, Math.min(1f, mix[i])) * Short.MAX_VALUE);
+        block[2 * i] = (byte) sample;
+        block[2 * i + 1] = (byte) (sample >> 8);
+      }
+      line.write(block, 0, block.length);
+    }
   }
 
   public void stopAllSounds() {
     stopRequested.set(true);
-    if (channel != null) {
-      synchronized (lock) {
-        channel.allNotesOff();
-      }
-    }
-    try {
-      Thread.sleep(50);
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-    }
+    stops.incrementAndGet();
   }
 
   public void reset() {
     stopRequested.set(false);
+    for (Voice voice : voices) {
+      voice.reset();
+    }
   }
 
-  public void close() {
+  public synchronized void close() {
     stopAllSounds();
-    if (synth != null && synth.isOpen()) {
-      synth.close();
+    closed = true;
+    if (renderThread != null) {
+      running = false;
+      LockSupport.unpark(renderThread);
+      try {
+        renderThread.join(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (line != null && line.isOpen()) {
+      line.close();
     }
   }
 
+  public State getState() {
+    return state;
+  }
+
   public boolean isAvailable() {
-    return available;
+    return state == State.READY;
   }
 }
@@ -0,0 +1,92 @@
+package audio;
+
+// Wavetable synthesizer owned by the audio render thread. A note event is
+// two short tones, one per value, played back to back like the old MIDI
+// pairs: compares as sine, swaps as square. There is one synth per voice.
+// Phases are 32-bit fixed point indexes into 1024-entry tables and every
+// per-pitch step is precomputed, so rendering a block is table lookups and
+// integer adds.
+final class ToneSynth {
+  static final int SAMPLE_RATE = 44_100;
+  static final int COMPARE = 0;
+  static final int SWAP = 1;
+
+  private static final int TABLE_BITS = 10;
+  private static final int TABLE_SIZE = 1 << TABLE_BITS;
+  private static final int RAMP = 64;
+  private static final float[][] TABLES = new float[2][TABLE_SIZE];
+  private static final float[] GAIN = { 0.22f, 0.18f };
+  private static final int[] TONE_SAMPLES = { SAMPLE_RATE * 25 / 1000, SAMPLE_RATE * 35 / 1000 };
+  private static final int[] PHASE_STEP = new int[128];
+
+  static {
+    for (int i = 0; i < TABLE_SIZE; i++) {
+      double s = Math.sin(2 * Math.PI * i / TABLE_SIZE);
+      TABLES[COMPARE][i] = (float) s;
+      TABLES[SWAP][i] = i < TABLE_SIZE / 2 ? 0.6f : -0.6f;
+    }
+    for (int note = 0; note < PHASE_STEP.length; note++) {
+      double frequency = 440 * Math.pow(2, (note - 69) / 12.0);
+      PHASE_STEP[note] = (int) Math.round(frequency / SAMPLE_RATE * 4294967296.0);
+    }
+  }
+
+  private float[] table = TABLES[COMPARE];
+  private float gain;
+  private int phase;
+  private int step;
+  private int nextStep;
+  private int toneLength;
+  private int toneLeft;
+
+  // Events pack the voice in bits 17+, the kind in bit 16, the first pitch
+  // in bits 8-15 and the second in bits 0-7, pitches being MIDI note numbers.
+  static long event(int kind, int pitch1, int pitch2, int voice) {
+    return ((long) voice << 17) | ((long) kind << 16) | (pitch1 << 8) | pitch2;
+  }
+
+  static int kindOf(long event) {
+    return (int) (event >>> 16) & 1;
+  }
+
+  static int voiceOf(long event) {
+    return (int) (event >>> 17);
+  }
+
+  boolean isPlaying() {
+    return toneLeft > 0;
+  }
+
+  void start(long event) {
+    int kind = kindOf(event);
+    table = TABLES[kind];
+    gain = GAIN[kind];
+    step = PHASE_STEP[(int) (event >>> 8) & 0x7F];
+    nextStep = PHASE_STEP[(int) event & 0x7F];
+    toneLength = TONE_SAMPLES[kind];
+    toneLeft = toneLength;
+  }
+
+  void silence() {
+    toneLeft = 0;
+    nextStep = 0;
+  }
+
+  // Adds up to frames samples of the current note to the interleaved stereo
+  // mix, scaled per channel; stops early when the note ends.
+  void mixInto(float[] mix, int frames, float leftGain, float rightGain) {
+    for (int f = 0; f < frames && toneLeft > 0; f++) {
+      int position = toneLength - toneLeft;
+      float envelope = Math.min(1f, Math.min(position, toneLeft) / (float) RAMP);
+      float sample = table[phase >>> (32 - TABLE_BITS)] * gain * envelope;
+      mix[2 * f] += sample * leftGain;
+      mix[2 * f + 1] += sample * rightGain;
+      phase += step;
+      if (--toneLeft == 0 && nextStep != 0) {
+        step = nextStep;
+        nextStep = 0;
+        toneLeft = toneLength;
+      }
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// One sorter's sound: its own synth voice and stereo position, and a notes
+// per second budget. Operations within one time slice only update the
+// candidate note, swaps outranking compares and later ones replacing
+// earlier ones of the same kind; the first operation past the end of a
+// slice sends the candidate. A sort doing 100k operations per second thus
+// costs a clock read and a field write per operation and a handful of
+// notes per second.
+public final class Voice {
+  private static final long NONE = -1;
+
+  private final ToneGenerator generator;
+  private final int index;
+  private final long sliceNanos;
+  private final AtomicLong sliceEnd = new AtomicLong();
+  private volatile long candidate = NONE;
+  private volatile float pan = 0f;
+
+  Voice(ToneGenerator generator, int index, int notesPerSecond) {
+    this.generator = generator;
+    this.index = index;
+    this.sliceNanos = 1_000_000_000L / notesPerSecond;
+    reset();
+  }
+
+  public void playCompare(int v1, int v2) {
+    play(ToneSynth.COMPARE, v1, v2);
+  }
+
+  public void playSwap(int v1, int v2) {
+    play(ToneSynth.SWAP, v1, v2);
+  }
+
+  private void play(int kind, int v1, int v2) {
+    if (!generator.isAccepting())
+      return;
+    long best = candidate;
+    if (best == NONE || kind >= ToneSynth.kindOf(best)) {
+      best = ToneSynth.event(kind, mapToPitch(v1), mapToPitch(v2), index);
+      candidate = best;
+    }
+    long now = System.nanoTime();
+    long end = sliceEnd.get();
+    if (now - end >= 0 && sliceEnd.compareAndSet(end, now + sliceNanos)) {
+      candidate = NONE;
+      generator.offer(best);
+    }
+  }
+
+  void reset() {
+    candidate = NONE;
+    sliceEnd.set(System.nanoTime() - sliceNanos);
+  }
+
+  int getIndex() {
+    return index;
+  }
+
+  float getPan() {
+    return pan;
+  }
+
+  void setPan(float pan) {
+    this.pan = pan;
+  }
+
+  private static int mapToPitch(int value) {
+    value = Math.max(1, value);
+    double normalized = Math.min(1.0, Math.log(1 + value) / Math.log(1000));
+    return 36 + (int) Math.round(normalized * 60);
+  }
+}
@@ -22,6 +22,7 @@ public class UIConstants {
   public static final Color HIGHLIGHT_B_END = new Color(22, 163, 74);
   public static final Color SORTED_START = new Color(16, 185, 129);
   public static final Color SORTED_END = new Color(5, 150, 105);
+  public static final Color RUN_BOUNDARY = new Color(251, 191, 36);
 
   // Button Colors
   public static final Color START_BTN_COLOR = new Color(16, 185, 129);
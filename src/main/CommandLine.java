@@ -0,0 +1,79 @@
+package main;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import algorithms.AlgorithmRegistry;
+import algorithms.SortAlgorithm;
+import util.ArrayGenerator;
+import util.InputDistribution;
+
+public class CommandLine {
+  private static final String USAGE = String.join(System.lineSeparator(),
+      "Usage: java -cp bin main.Main [--list | --run <algorithm> [size] [distribution]]",
+      "  --list   print every registered algorithm with its metadata",
+      "  --run    sort one generated array without visualization and print the time");
+
+  public static int run(String[] args) {
+    AlgorithmRegistry registry = AlgorithmRegistry.getDefault();
+    try {
+      switch (args[0]) {
+        case "--list" -> list(registry);
+        case "--run" -> {
+          if (args.length < 2) {
+            System.err.println(USAGE);
+            return 2;
+          }
+          int size = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+          InputDistribution distribution = args.length > 3
+              ? InputDistribution.valueOf(args[3].toUpperCase(Locale.ROOT))
+              : InputDistribution.RANDOM;
+          return runOnce(registry.find(args[1]), size, distribution);
+        }
+        default -> {
+          System.err.println(USAGE);
+          return 2;
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      return 2;
+    }
+    return 0;
+  }
+
+  private static void list(AlgorithmRegistry registry) {
+    String format = "%-22s %-26s %-7s %-9s %-15s %s%n";
+    System.out.printf(format, "Algorithm", "Complexity", "Stable", "In-place", "Aux memory", "Parallel");
+    for (SortAlgorithm algo : registry.getAlgorithms()) {
+      System.out.printf(format, algo.getName(), algo.getComplexity(), yesNo(algo.isStable()),
+          yesNo(algo.isInPlace()), algo.getAuxiliaryMemory(), yesNo(algo.isParallel()));
+    }
+  }
+
+  private static int runOnce(SortAlgorithm algo, int size, InputDistribution distribution) {
+    int[] arr = ArrayGenerator.generateArray(size, distribution, new Random(42));
+    long start = System.nanoTime();
+    algo.sort(arr, new AtomicBoolean(false));
+    long elapsed = System.nanoTime() - start;
+
+    for (int i = 1; i < arr.length; i++) {
+      if (arr[i - 1] > arr[i]) {
+        System.err.println(algo.getName() + " left index " + i + " out of order");
+        return 1;
+      }
+    }
+    System.out.printf("%s: %,d %s elements in %.3f ms%n", algo.getName(), size,
+        distribution, elapsed / 1e6);
+    return 0;
+  }
+
+  private static String yesNo(boolean value) {
+    return value ? "yes" : "no";
+  }
+
+  private CommandLine() {
+    // Prevent instantiation
+  }
+}
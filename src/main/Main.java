@@ -7,6 +7,11 @@ import ui.SortVisualizerFrame;
 
 public class Main {
   public static void main(String[] args) {
+    long launched = System.nanoTime();
+    if (args.length > 0) {
+      System.exit(CommandLine.run(args));
+    }
+
     SwingUtilities.invokeLater(() -> {
       try {
         UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -15,6 +20,13 @@ public class Main {
       }
 
       SortVisualizerFrame frame = new SortVisualizerFrame();
+      // Used by benchmarks.StartupBenchmark to time startup in a fresh JVM.
+      if (Boolean.getBoolean("visualizer.exitAfterFirstPaint")) {
+        frame.getBarPanel().whenFirstPainted(() -> {
+          System.out.printf("first-paint-ms %.1f%n", (System.nanoTime() - launched) / 1e6);
+          System.exit(0);
+        });
+      }
       frame.pack();
       frame.setLocationRelativeTo(null);
       frame.setVisible(true);
@@ -0,0 +1,26 @@
+package model;
+
+public enum ExecutionMode {
+  LIVE("Live"),
+  REPLAY("Record & Replay"),
+  BENCHMARK("Benchmark");
+
+  private final String label;
+
+  ExecutionMode(String label) {
+    this.label = label;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  public static String[] labels() {
+    ExecutionMode[] modes = values();
+    String[] labels = new String[modes.length];
+    for (int i = 0; i < modes.length; i++) {
+      labels[i] = modes[i].label;
+    }
+    return labels;
+  }
+}
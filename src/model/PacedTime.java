@@ -0,0 +1,23 @@
+package model;
+
+// Time each thread has spent held back by the pacer or a paused gate, so
+// phase timings can leave it out and measure only the sort's own work.
+public final class PacedTime {
+  private static final ThreadLocal<long[]> WAITED = ThreadLocal.withInitial(() -> new long[1]);
+
+  private PacedTime() {
+  }
+
+  public static long waitedNanos() {
+    return WAITED.get()[0];
+  }
+
+  // Wall time minus paced waits on the calling thread.
+  public static long busyNanos() {
+    return System.nanoTime() - WAITED.get()[0];
+  }
+
+  static void add(long nanos) {
+    WAITED.get()[0] += nanos;
+  }
+}
@@ -0,0 +1,63 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleSupplier;
+
+// Paces a run to a target number of operations per second. Each operation
+// books its slot on a shared schedule; the thread only parks once it is a
+// frame's worth ahead, so rates above one operation per frame run in
+// per-frame batches and slower rates park once per operation. Early
+// wake-ups are repaid by later waits. Parks last at most a frame, so a
+// stopped run's threads notice the stop within one, including fork/join
+// workers that stop() cannot interrupt.
+public class Pacer {
+  public static final double UNLIMITED = Double.POSITIVE_INFINITY;
+
+  private static final long FRAME_NANOS = 16_000_000L;
+  private static final long MAX_LAG_NANOS = 50_000_000L;
+
+  private final DoubleSupplier opsPerSecond;
+  private final AtomicBoolean stopRequested;
+  private final AtomicLong schedule = new AtomicLong(System.nanoTime());
+
+  public Pacer(DoubleSupplier opsPerSecond, AtomicBoolean stopRequested) {
+    this.opsPerSecond = opsPerSecond;
+    this.stopRequested = stopRequested;
+  }
+
+  public void pace() {
+    double rate = opsPerSecond.getAsDouble();
+    if (Double.isInfinite(rate))
+      return;
+
+    long interval = (long) (1e9 / rate);
+    long now = System.nanoTime();
+    long due = schedule.addAndGet(interval);
+    if (due < now - MAX_LAG_NANOS) {
+      // The sort itself is slower than the target; don't bank the backlog
+      // as a burst for later.
+      schedule.compareAndSet(due, now);
+      return;
+    }
+    if (due - now >= FRAME_NANOS) {
+      long wait;
+      while (!stopRequested.get() && (wait = due - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(Math.min(wait, FRAME_NANOS));
+      }
+      PacedTime.add(System.nanoTime() - now);
+    }
+  }
+
+  public static String describe(double opsPerSecond) {
+    if (Double.isInfinite(opsPerSecond)) {
+      return "Max";
+    } else if (opsPerSecond >= 1_000_000) {
+      return String.format("%.1fM/s", opsPerSecond / 1_000_000);
+    } else if (opsPerSecond >= 1_000) {
+      return String.format("%.1fk/s", opsPerSecond / 1_000);
+    }
+    return String.format("%.0f/s", opsPerSecond);
+  }
+}
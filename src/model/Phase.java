@@ -0,0 +1,18 @@
+package model;
+
+public enum Phase {
+  PARTITION("Partition"),
+  MERGE("Merge"),
+  HEAPIFY("Heapify"),
+  DIGIT_PASS("Digit pass");
+
+  private final String label;
+
+  Phase(String label) {
+    this.label = label;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+}
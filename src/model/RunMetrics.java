@@ -0,0 +1,118 @@
+package model;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Operation counters for one run. LongAdder keeps increments cheap and
+// correct when a parallel algorithm reports from many worker threads.
+public class RunMetrics {
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private final LongAdder reads = new LongAdder();
+  private final LongAdder writes = new LongAdder();
+  private final LongAdder compares = new LongAdder();
+  private final LongAdder swaps = new LongAdder();
+  private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+  private volatile long startNanos = 0;
+  private volatile long endNanos = 0;
+  private volatile long cpuStartNanos = -1;
+  private volatile long cpuNanos = -1;
+  private final LongAdder workerCpuNanos = new LongAdder();
+  private volatile boolean cpuMeasured = true;
+
+  public RunMetrics() {
+    for (int i = 0; i < phaseNanos.length; i++) {
+      phaseNanos[i] = new LongAdder();
+    }
+  }
+
+  // start() and finish() must be called on the thread that runs the sort so
+  // its CPU time can be measured. Fork/join workers report theirs through
+  // addCpuNanos().
+  public void start() {
+    cpuStartNanos = threadCpuNanos();
+    startNanos = System.nanoTime();
+    endNanos = 0;
+    workerCpuNanos.reset();
+    cpuMeasured = true;
+  }
+
+  public void finish() {
+    if (startNanos != 0 && endNanos == 0) {
+      endNanos = System.nanoTime();
+      long cpuEnd = threadCpuNanos();
+      if (cpuMeasured && cpuStartNanos >= 0 && cpuEnd >= 0) {
+        cpuNanos = cpuEnd - cpuStartNanos + workerCpuNanos.sum();
+      }
+    }
+  }
+
+  public boolean isFinished() {
+    return endNanos != 0;
+  }
+
+  public void incrementReads() {
+    reads.increment();
+  }
+
+  public void incrementWrites() {
+    writes.increment();
+  }
+
+  public void incrementCompares() {
+    compares.increment();
+  }
+
+  public void incrementSwaps() {
+    swaps.increment();
+  }
+
+  public void addCpuNanos(long nanos) {
+    workerCpuNanos.add(nanos);
+  }
+
+  // For runs whose work happened on threads that could not report their
+  // CPU time, so the caller's alone would be misleading.
+  public void discardCpu() {
+    cpuMeasured = false;
+  }
+
+  public void addPhaseNanos(Phase phase, long nanos) {
+    phaseNanos[phase.ordinal()].add(nanos);
+  }
+
+  public RunResult result(String algorithm) {
+    Map<Phase, Long> phases = new EnumMap<>(Phase.class);
+    for (Phase phase : Phase.values()) {
+      long nanos = phaseNanos[phase.ordinal()].sum();
+      if (nanos > 0) {
+        phases.put(phase, nanos);
+      }
+    }
+    return new RunResult(algorithm, snapshot(), cpuNanos, Collections.unmodifiableMap(phases));
+  }
+
+  public Snapshot snapshot() {
+    long start = startNanos;
+    long end = endNanos;
+    long nanos = start == 0 ? 0 : (end != 0 ? end : System.nanoTime()) - start;
+    return new Snapshot(reads.sum(), writes.sum(), compares.sum(), swaps.sum(), nanos);
+  }
+
+  // -1 where the JVM cannot measure thread CPU time.
+  public static long threadCpuNanos() {
+    return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+  }
+
+  public record Snapshot(long reads, long writes, long compares, long swaps, long nanos) {
+    public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0);
+
+    public long operations() {
+      return reads + writes + compares + swaps;
+    }
+  }
+}
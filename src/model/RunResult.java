@@ -0,0 +1,28 @@
+package model;
+
+import java.util.Map;
+
+import util.TimeFormatter;
+
+// Outcome of one finished run. CPU time includes the fork/join workers of
+// parallel sorts. Phase times leave out paced waits and are summed over
+// every thread that worked in the phase, so parallel sorts can exceed the
+// wall time.
+public record RunResult(String algorithm, RunMetrics.Snapshot operations, long cpuNanos,
+    Map<Phase, Long> phaseNanos) {
+
+  public long wallNanos() {
+    return operations.nanos();
+  }
+
+  public String summary() {
+    StringBuilder sb = new StringBuilder(algorithm)
+        .append(": wall ").append(TimeFormatter.formatNanos(wallNanos()))
+        .append(", CPU ").append(cpuNanos < 0 ? "n/a" : TimeFormatter.formatNanos(cpuNanos));
+    for (Map.Entry<Phase, Long> phase : phaseNanos.entrySet()) {
+      sb.append(", ").append(phase.getKey().getLabel()).append(' ')
+          .append(TimeFormatter.formatNanos(phase.getValue()));
+    }
+    return sb.toString();
+  }
+}
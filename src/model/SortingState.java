@@ -3,62 +3,48 @@ package model;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SortingState {
-  private volatile Thread workerThread;
-  private volatile Thread timerThread;
-  private volatile long startTime = 0;
-  private volatile boolean finished = false;
+  private Thread workerThread;
+  private volatile RunMetrics metrics = new RunMetrics();
   private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+  private final StepGate stepGate = new StepGate();
 
-  public Thread getWorkerThread() {
-    return workerThread;
+  // Pool threads outlive the run, so the worker is attached only while it
+  // runs this state's sort and stop() never interrupts a later task.
+  public synchronized void attachWorker(Thread thread) {
+    this.workerThread = thread;
   }
 
-  public void setWorkerThread(Thread workerThread) {
-    this.workerThread = workerThread;
+  public synchronized void detachWorker() {
+    this.workerThread = null;
   }
 
-  public Thread getTimerThread() {
-    return timerThread;
+  public RunMetrics getMetrics() {
+    return metrics;
   }
 
-  public void setTimerThread(Thread timerThread) {
-    this.timerThread = timerThread;
-  }
-
-  public long getStartTime() {
-    return startTime;
-  }
-
-  public void setStartTime(long startTime) {
-    this.startTime = startTime;
-  }
-
-  public boolean isFinished() {
-    return finished;
-  }
-
-  public void setFinished(boolean finished) {
-    this.finished = finished;
+  public RunMetrics startRun() {
+    RunMetrics run = new RunMetrics();
+    metrics = run;
+    return run;
   }
 
   public AtomicBoolean getStopRequested() {
     return stopRequested;
   }
 
+  public StepGate getStepGate() {
+    return stepGate;
+  }
+
   public void reset() {
-    workerThread = null;
-    timerThread = null;
-    startTime = 0;
-    finished = false;
     stopRequested.set(false);
+    stepGate.resume();
   }
 
-  public void stop() {
+  public synchronized void stop() {
     stopRequested.set(true);
-    if (timerThread != null && timerThread.isAlive()) {
-      timerThread.interrupt();
-    }
-    if (workerThread != null && workerThread.isAlive()) {
+    stepGate.resume();
+    if (workerThread != null) {
       workerThread.interrupt();
     }
   }
@@ -0,0 +1,74 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Pause and single-step control for one run. The UI pauses, resumes and
+// queues steps; the run's threads check in at step boundaries and block
+// here while paused. Negative steps go backwards, which only trace playback
+// can honour.
+public class StepGate {
+  private volatile boolean paused = false;
+  private long pendingSteps;
+
+  public boolean isPaused() {
+    return paused;
+  }
+
+  public synchronized void pause() {
+    paused = true;
+  }
+
+  public synchronized void resume() {
+    paused = false;
+    pendingSteps = 0;
+    notifyAll();
+  }
+
+  public synchronized void step(long operations) {
+    pendingSteps += operations;
+    notifyAll();
+  }
+
+  // Blocks until resumed, stopped or asked to step; returns the queued
+  // operations, or 0 once running again.
+  public synchronized long await(AtomicBoolean stopRequested) {
+    while (paused && pendingSteps == 0 && !stopRequested.get()) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return 0;
+      }
+    }
+    long steps = pendingSteps;
+    pendingSteps = 0;
+    return steps;
+  }
+
+  // Lets one operation of a live run through: at once while running, and
+  // otherwise only as part of a forward step. Live runs cannot rewind, so
+  // backward steps are dropped.
+  public void pass(AtomicBoolean stopRequested) {
+    if (!paused)
+      return;
+    long start = System.nanoTime();
+    try {
+      synchronized (this) {
+        while (paused && pendingSteps <= 0 && !stopRequested.get()) {
+          pendingSteps = 0;
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+        if (paused) {
+          pendingSteps--;
+        }
+      }
+    } finally {
+      PacedTime.add(System.nanoTime() - start);
+    }
+  }
+}
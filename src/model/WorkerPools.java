@@ -0,0 +1,110 @@
+package model;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Shared executors for sort runs, created on first use. Threads are reused
+// across runs and are all daemons, so an idle pool never keeps the JVM alive.
+public final class WorkerPools {
+  // Paced runs spend most of their time parked, so more runs than cores can
+  // be live at once; beyond this many the pool rejects new runs, so anything
+  // that is not a run belongs on tasks() instead.
+  public static final int MAX_RUNS = 32;
+
+  private static final int CORES = Runtime.getRuntime().availableProcessors();
+  private static final long IDLE_SECONDS = 60;
+
+  private WorkerPools() {
+  }
+
+  // One thread per live run, reused between runs.
+  public static ExecutorService runs() {
+    return RunsHolder.POOL;
+  }
+
+  // Work started alongside runs, such as timing, saving or seeking traces.
+  // Queued rather than rejected once every core is busy.
+  public static ExecutorService tasks() {
+    return TasksHolder.POOL;
+  }
+
+  // Fork/join workers shared by the parallel sorts of every run.
+  public static ForkJoinPool parallel() {
+    return ParallelHolder.POOL;
+  }
+
+  // Timeouts and other delayed work that only needs a thread briefly.
+  public static ScheduledExecutorService scheduler() {
+    return SchedulerHolder.POOL;
+  }
+
+  // Speculative work, one task at a time on a minimum priority thread so it
+  // only soaks up otherwise idle CPU.
+  public static ExecutorService background() {
+    return BackgroundHolder.POOL;
+  }
+
+  private static ThreadFactory daemons(String prefix) {
+    return daemons(prefix, Thread.NORM_PRIORITY);
+  }
+
+  private static ThreadFactory daemons(String prefix, int priority) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      thread.setPriority(priority);
+      return thread;
+    };
+  }
+
+  private static final class RunsHolder {
+    static final ThreadPoolExecutor POOL = new ThreadPoolExecutor(CORES, MAX_RUNS,
+        IDLE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(), daemons("sort-worker"));
+
+    static {
+      POOL.allowCoreThreadTimeOut(true);
+    }
+  }
+
+  private static final class TasksHolder {
+    static final ThreadPoolExecutor POOL = new ThreadPoolExecutor(CORES, CORES,
+        IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), daemons("task"));
+
+    static {
+      POOL.allowCoreThreadTimeOut(true);
+    }
+  }
+
+  private static final class ParallelHolder {
+    static final ForkJoinPool POOL = new ForkJoinPool(CORES,
+        ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false);
+  }
+
+  private static final class BackgroundHolder {
+    static final ThreadPoolExecutor POOL = new ThreadPoolExecutor(1, 1,
+        IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        daemons("background", Thread.MIN_PRIORITY));
+
+    static {
+      POOL.allowCoreThreadTimeOut(true);
+    }
+  }
+
+  private static final class SchedulerHolder {
+    static final ScheduledThreadPoolExecutor POOL =
+        new ScheduledThreadPoolExecutor(1, daemons("run-scheduler"));
+
+    static {
+      POOL.setRemoveOnCancelPolicy(true);
+    }
+  }
+}
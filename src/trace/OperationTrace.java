@@ -0,0 +1,136 @@
+package trace;
+
+import java.util.Arrays;
+
+public class OperationTrace implements TraceSink {
+  public static final int COMPARE = 0;
+  public static final int SWAP = 1;
+  public static final int WRITE = 2;
+  public static final int READ = 3;
+
+  // Each operation is packed into one long: opcode in the top 2 bits, the
+  // first index in the next 30 bits and the second index (or value) in the
+  // low 32 bits.
+  private static final int OPCODE_SHIFT = 62;
+  private static final int INDEX_SHIFT = 32;
+  private static final long INDEX_MASK = (1L << 30) - 1;
+  private static final int MAX_OPERATIONS = Integer.MAX_VALUE - 8;
+
+  private final int[] initialArray;
+  private long[] operations;
+  private int size;
+
+  public OperationTrace(int[] initialArray) {
+    this.initialArray = Arrays.copyOf(initialArray, initialArray.length);
+    this.operations = new long[Math.max(16, initialArray.length)];
+  }
+
+  @Override
+  public void append(int opcode, int a, int b) {
+    if (size == operations.length) {
+      if (size >= MAX_OPERATIONS) {
+        throw new IllegalStateException("Trace exceeds " + MAX_OPERATIONS + " operations");
+      }
+      operations = Arrays.copyOf(operations, (int) Math.min(MAX_OPERATIONS, size * 2L));
+    }
+    operations[size++] = pack(opcode, a, b);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int opcode(int k) {
+    return opcodeOf(operations[k]);
+  }
+
+  public int first(int k) {
+    return firstOf(operations[k]);
+  }
+
+  public int second(int k) {
+    return secondOf(operations[k]);
+  }
+
+  public int getArrayLength() {
+    return initialArray.length;
+  }
+
+  public int[] getInitialArray() {
+    return Arrays.copyOf(initialArray, initialArray.length);
+  }
+
+  public void copyInitialArrayInto(int[] target) {
+    System.arraycopy(initialArray, 0, target, 0, initialArray.length);
+  }
+
+  public long sizeInBytes() {
+    return 8L * operations.length + 4L * initialArray.length;
+  }
+
+  boolean startsFrom(int[] input) {
+    return Arrays.equals(initialArray, input);
+  }
+
+  public void trimToSize() {
+    if (operations.length > size) {
+      operations = Arrays.copyOf(operations, size);
+    }
+  }
+
+  TraceCursor cursor() {
+    return new TraceCursor() {
+      private int position;
+
+      @Override
+      public long size() {
+        return size;
+      }
+
+      @Override
+      public int getArrayLength() {
+        return initialArray.length;
+      }
+
+      @Override
+      public long checkpointBefore(long target) {
+        return 0;
+      }
+
+      @Override
+      public long restore(long target, int[] array) {
+        copyInitialArrayInto(array);
+        position = 0;
+        return 0;
+      }
+
+      @Override
+      public void skipTo(long target) {
+        position = (int) target;
+      }
+
+      @Override
+      public long next() {
+        return operations[position++];
+      }
+    };
+  }
+
+  static long pack(int opcode, int a, int b) {
+    return ((long) opcode << OPCODE_SHIFT)
+        | ((a & INDEX_MASK) << INDEX_SHIFT)
+        | (b & 0xFFFFFFFFL);
+  }
+
+  static int opcodeOf(long operation) {
+    return (int) (operation >>> OPCODE_SHIFT);
+  }
+
+  static int firstOf(long operation) {
+    return (int) ((operation >>> INDEX_SHIFT) & INDEX_MASK);
+  }
+
+  static int secondOf(long operation) {
+    return (int) operation;
+  }
+}
@@ -0,0 +1,117 @@
+package trace;
+
+import java.util.Arrays;
+
+// Copy-on-write array snapshots taken every `interval` operations as a
+// player first passes them. The array is split into chunks; a snapshot
+// copies only the chunks written since the previous one and shares the
+// rest, so restoring from a neighbouring snapshot copies only the chunks
+// whose references differ plus those written since.
+final class Snapshots {
+  private static final int CHUNK_SHIFT = 10;
+  private static final int CHUNK = 1 << CHUNK_SHIFT;
+  private static final long MIN_INTERVAL = 1024;
+
+  private final int arrayLength;
+  private final int chunkCount;
+  private final long interval;
+  private final long budgetBytes;
+  private long usedBytes;
+  private int[][][] taken = new int[16][][];
+  private final long[] dirty;
+  // The snapshot the array equals outside the dirty chunks, or -1.
+  private int base = -1;
+
+  // Spaced so that even snapshots sharing nothing fit the budget.
+  Snapshots(int arrayLength, long operations, long budgetBytes) {
+    this.arrayLength = arrayLength;
+    this.chunkCount = (arrayLength + CHUNK - 1) >>> CHUNK_SHIFT;
+    this.budgetBytes = budgetBytes;
+    this.dirty = new long[(chunkCount + 63) >>> 6];
+    long count = Math.max(2, budgetBytes / bytesPerSnapshot(arrayLength));
+    this.interval = Math.max(MIN_INTERVAL, (operations + count - 2) / (count - 1));
+  }
+
+  // A snapshot that shares no chunks, each with its array header.
+  static long bytesPerSnapshot(int arrayLength) {
+    long chunks = (arrayLength + CHUNK - 1) >>> CHUNK_SHIFT;
+    return 4L * arrayLength + 24L * chunks + 16;
+  }
+
+  long interval() {
+    return interval;
+  }
+
+  void touch(int index) {
+    int chunk = index >>> CHUNK_SHIFT;
+    dirty[chunk >>> 6] |= 1L << chunk;
+  }
+
+  // Called whenever the player stands on a multiple of the interval.
+  void passed(long position, int[] array) {
+    int k = (int) (position / interval);
+    if (k < taken.length && taken[k] != null) {
+      base = k;
+      Arrays.fill(dirty, 0);
+      return;
+    }
+
+    int[][] previous = base == k - 1 && k > 0 ? taken[k - 1] : null;
+    int[][] chunks = new int[chunkCount][];
+    long bytes = 8L * chunkCount + 16;
+    for (int c = 0; c < chunkCount; c++) {
+      if (previous != null && !isDirty(c)) {
+        chunks[c] = previous[c];
+      } else {
+        int from = c << CHUNK_SHIFT;
+        chunks[c] = Arrays.copyOfRange(array, from, Math.min(arrayLength, from + CHUNK));
+        bytes += 4L * chunks[c].length + 16;
+      }
+    }
+    Arrays.fill(dirty, 0);
+    if (usedBytes + bytes > budgetBytes && k > 0) {
+      base = -1;
+      return;
+    }
+    if (k >= taken.length) {
+      taken = Arrays.copyOf(taken, Math.max(k + 1, taken.length * 2));
+    }
+    taken[k] = chunks;
+    usedBytes += bytes;
+    base = k;
+  }
+
+  // Position of the latest snapshot at or before target, or -1.
+  long before(long target) {
+    for (int k = (int) Math.min(taken.length - 1, target / interval); k >= 0; k--) {
+      if (taken[k] != null) {
+        return k * interval;
+      }
+    }
+    return -1;
+  }
+
+  long restore(long target, int[] array) {
+    int k = (int) (before(target) / interval);
+    int[][] chunks = taken[k];
+    int[][] current = base >= 0 ? taken[base] : null;
+    for (int c = 0; c < chunkCount; c++) {
+      if (current == null || isDirty(c) || current[c] != chunks[c]) {
+        System.arraycopy(chunks[c], 0, array, c << CHUNK_SHIFT, chunks[c].length);
+      }
+    }
+    Arrays.fill(dirty, 0);
+    base = k;
+    return k * interval;
+  }
+
+  // The array was loaded from elsewhere and matches no snapshot.
+  void invalidate() {
+    base = -1;
+    Arrays.fill(dirty, 0);
+  }
+
+  private boolean isDirty(int chunk) {
+    return (dirty[chunk >>> 6] & (1L << chunk)) != 0;
+  }
+}
@@ -0,0 +1,198 @@
+package trace;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Recorded traces keyed by algorithm name and a 64-bit hash of the input,
+// evicted least recently used first once their total size passes the
+// budget. With a spill directory, evicted traces are written there as
+// .strace files and read back on a later miss. Hits are checked against the
+// full input, so a hash collision only costs a miss. A spill that cannot be
+// written or read back is deleted and thrown as an UncheckedIOException, so
+// the caller can report it and carry on as after a miss.
+public final class TraceCache {
+  private final long budgetBytes;
+  private final Path spillDirectory;
+  private final LinkedHashMap<Key, OperationTrace> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long usedBytes;
+
+  public TraceCache(long budgetBytes, Path spillDirectory) {
+    this.budgetBytes = budgetBytes;
+    this.spillDirectory = spillDirectory;
+  }
+
+  // -Dvisualizer.traceCacheMb sets the memory budget (default 256MB, at
+  // most a quarter of the heap); -Dvisualizer.traceCacheDir enables spilling.
+  public static TraceCache getDefault() {
+    return Holder.DEFAULT;
+  }
+
+  public static long inputHash(int[] input) {
+    long h = 0x9E3779B97F4A7C15L ^ input.length;
+    for (int v : input) {
+      h = (h ^ v) * 0xBF58476D1CE4E5B9L;
+      h ^= h >>> 31;
+    }
+    return h;
+  }
+
+  // Null on a miss. Throws if a spilled copy was found but could not be
+  // read, or if reloading it evicted a trace that could not be spilled.
+  public OperationTrace get(String algorithm, int[] input) {
+    Key key = new Key(algorithm, inputHash(input), input.length);
+    synchronized (this) {
+      OperationTrace trace = entries.get(key);
+      if (trace != null && trace.startsFrom(input)) {
+        return trace;
+      }
+    }
+    OperationTrace spilled = readSpilled(key, input);
+    if (spilled != null) {
+      put(key, spilled);
+    }
+    return spilled;
+  }
+
+  // Memory only, so it never touches the disk.
+  public OperationTrace peek(String algorithm, int[] input) {
+    Key key = new Key(algorithm, inputHash(input), input.length);
+    synchronized (this) {
+      OperationTrace trace = entries.get(key);
+      return trace != null && trace.startsFrom(input) ? trace : null;
+    }
+  }
+
+  // Throws if an evicted trace could not be spilled.
+  public void put(String algorithm, OperationTrace trace) {
+    put(new Key(algorithm, inputHash(trace.getInitialArray()), trace.getArrayLength()), trace);
+  }
+
+  public long getBudgetBytes() {
+    return budgetBytes;
+  }
+
+  public synchronized long getUsedBytes() {
+    return usedBytes;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  // A failed spill loses only that copy; the memory side is already done.
+  private void put(Key key, OperationTrace trace) {
+    List<Map.Entry<Key, OperationTrace>> evicted = new ArrayList<>();
+    synchronized (this) {
+      OperationTrace previous = entries.remove(key);
+      if (previous != null) {
+        usedBytes -= previous.sizeInBytes();
+      }
+      if (trace.sizeInBytes() <= budgetBytes) {
+        entries.put(key, trace);
+        usedBytes += trace.sizeInBytes();
+      } else {
+        evicted.add(Map.entry(key, trace));
+      }
+      Iterator<Map.Entry<Key, OperationTrace>> eldest = entries.entrySet().iterator();
+      while (usedBytes > budgetBytes && eldest.hasNext()) {
+        Map.Entry<Key, OperationTrace> entry = eldest.next();
+        usedBytes -= entry.getValue().sizeInBytes();
+        evicted.add(Map.entry(entry.getKey(), entry.getValue()));
+        eldest.remove();
+      }
+    }
+    // Spilling writes whole traces, so it happens outside the lock.
+    UncheckedIOException failure = null;
+    for (Map.Entry<Key, OperationTrace> entry : evicted) {
+      try {
+        spill(entry.getKey(), entry.getValue());
+      } catch (UncheckedIOException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void spill(Key key, OperationTrace trace) {
+    if (spillDirectory == null)
+      return;
+    Path path = spillDirectory.resolve(key.fileName());
+    if (Files.exists(path))
+      return;
+    Path partial = spillDirectory.resolve(key.fileName() + ".part");
+    try {
+      Files.createDirectories(spillDirectory);
+      try (TraceWriter writer = new TraceWriter(partial, trace.getInitialArray())) {
+        for (int k = 0; k < trace.size(); k++) {
+          writer.append(trace.opcode(k), trace.first(k), trace.second(k));
+        }
+      }
+      Files.move(partial, path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not spill trace to " + path, delete(partial, e));
+    }
+  }
+
+  private OperationTrace readSpilled(Key key, int[] input) {
+    if (spillDirectory == null)
+      return null;
+    Path path = spillDirectory.resolve(key.fileName());
+    if (!Files.exists(path))
+      return null;
+    try (TraceFile file = TraceFile.open(path)) {
+      int[] initial = new int[file.getArrayLength()];
+      file.copyInitialArrayInto(initial);
+      if (!Arrays.equals(initial, input) || file.size() > Integer.MAX_VALUE - 8)
+        return null;
+      OperationTrace trace = new OperationTrace(initial);
+      TraceCursor cursor = file.cursor();
+      for (long k = 0; k < file.size(); k++) {
+        long operation = cursor.next();
+        trace.append(OperationTrace.opcodeOf(operation), OperationTrace.firstOf(operation),
+            OperationTrace.secondOf(operation));
+      }
+      trace.trimToSize();
+      return trace;
+    } catch (IOException e) {
+      // Left in place it would fail every later lookup the same way.
+      throw new UncheckedIOException("Could not reload spilled trace " + path, delete(path, e));
+    }
+  }
+
+  private static IOException delete(Path path, IOException failure) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      failure.addSuppressed(e);
+    }
+    return failure;
+  }
+
+  private record Key(String algorithm, long inputHash, int length) {
+    String fileName() {
+      return algorithm.toLowerCase().replaceAll("[^a-z0-9]+", "-")
+          + "-" + length + "-" + Long.toHexString(inputHash) + ".strace";
+    }
+  }
+
+  private static final class Holder {
+    static final TraceCache DEFAULT = new TraceCache(
+        Math.min(Long.getLong("visualizer.traceCacheMb", 256) << 20, Runtime.getRuntime().maxMemory() / 4),
+        System.getProperty("visualizer.traceCacheDir") == null
+            ? null : Path.of(System.getProperty("visualizer.traceCacheDir")));
+  }
+}
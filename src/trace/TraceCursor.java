@@ -0,0 +1,21 @@
+package trace;
+
+// Sequential access to a recorded run for TracePlayer. Operations come back
+// packed the same way OperationTrace stores them.
+interface TraceCursor {
+  long size();
+
+  int getArrayLength();
+
+  // The furthest position at or before target that restore() can jump to.
+  long checkpointBefore(long target);
+
+  // Loads the array as it was at checkpointBefore(target), moves the cursor
+  // there and returns that position.
+  long restore(long target, int[] array);
+
+  // Moves the cursor without touching any array.
+  void skipTo(long position);
+
+  long next();
+}
@@ -0,0 +1,234 @@
+package trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A .strace file (see TraceFormat) mapped read-only. Nothing but the header
+// fields lives on the heap; blocks are decoded straight from the mapping and
+// checkpoints are copied out of it in bulk.
+public class TraceFile implements Closeable {
+  // Mappings are capped at 2GB, so the file is mapped in 1GB segments that
+  // overlap by one maximal block. Every block and index entry can then be
+  // read from the segment it starts in.
+  private static final long SEGMENT_BYTES = 1L << 30;
+  private static final int SEGMENT_OVERLAP = TraceFormat.BLOCK_HEADER_BYTES
+      + TraceFormat.BLOCK_OPS * TraceFormat.MAX_OP_BYTES;
+
+  private final Path path;
+  private final FileChannel channel;
+  private final long segmentBytes;
+  private final MappedByteBuffer[] segments;
+  private final int arrayLength;
+  private final int blockOps;
+  private final long checkpointInterval;
+  private final long operations;
+  private final long blockIndexOffset;
+  private final int blockCount;
+  private final long checkpointIndexOffset;
+  private final int checkpointCount;
+
+  private TraceFile(Path path, FileChannel channel, long segmentBytes, MappedByteBuffer[] segments)
+      throws IOException {
+    this.path = path;
+    this.channel = channel;
+    this.segmentBytes = segmentBytes;
+    this.segments = segments;
+    long length = channel.size();
+    if (length < TraceFormat.HEADER_BYTES + TraceFormat.FOOTER_BYTES
+        || readInt(0) != TraceFormat.MAGIC
+        || readInt(length - 4) != TraceFormat.MAGIC) {
+      throw new IOException(path.getFileName() + " is not a .strace file");
+    }
+    if (readInt(4) != TraceFormat.VERSION) {
+      throw new IOException("Unsupported .strace version " + readInt(4));
+    }
+    this.arrayLength = readInt(8);
+    this.blockOps = readInt(12);
+    this.checkpointInterval = readLong(16);
+    long footer = length - TraceFormat.FOOTER_BYTES;
+    this.operations = readLong(footer);
+    this.blockIndexOffset = readLong(footer + 8);
+    this.blockCount = readInt(footer + 16);
+    this.checkpointIndexOffset = readLong(footer + 20);
+    this.checkpointCount = readInt(footer + 28);
+    if (blockOps != TraceFormat.BLOCK_OPS || checkpointCount < 1
+        || checkpointIndexOffset + 8L * checkpointCount != footer) {
+      throw new IOException(path.getFileName() + " is truncated or corrupt");
+    }
+  }
+
+  public static TraceFile open(Path path) throws IOException {
+    return open(path, SEGMENT_BYTES);
+  }
+
+  // Smaller segments let tests cross segment boundaries without 1GB files.
+  static TraceFile open(Path path, long segmentBytes) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      long length = channel.size();
+      int count = (int) Math.max(1, (length + segmentBytes - 1) / segmentBytes);
+      MappedByteBuffer[] segments = new MappedByteBuffer[count];
+      for (int s = 0; s < count; s++) {
+        long start = s * segmentBytes;
+        long end = Math.min(length, start + segmentBytes + SEGMENT_OVERLAP);
+        segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+      }
+      return new TraceFile(path, channel, segmentBytes, segments);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public long size() {
+    return operations;
+  }
+
+  public int getArrayLength() {
+    return arrayLength;
+  }
+
+  public void copyInitialArrayInto(int[] target) {
+    readInts(checkpointOffset(0), target);
+  }
+
+  // The mappings are released once they are garbage collected.
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  TraceCursor cursor() {
+    return new Cursor();
+  }
+
+  private long checkpointOffset(int k) {
+    return readLong(checkpointIndexOffset + 8L * k);
+  }
+
+  private long blockOffset(int k) {
+    return readLong(blockIndexOffset + 8L * k);
+  }
+
+  private int readInt(long offset) {
+    return segments[(int) (offset / segmentBytes)].getInt((int) (offset % segmentBytes));
+  }
+
+  private long readLong(long offset) {
+    return segments[(int) (offset / segmentBytes)].getLong((int) (offset % segmentBytes));
+  }
+
+  private void readInts(long offset, int[] target) {
+    for (int read = 0; read < target.length;) {
+      MappedByteBuffer segment = segments[(int) (offset / segmentBytes)];
+      int local = (int) (offset % segmentBytes);
+      int count = Math.min(target.length - read, (segment.limit() - local) / 4);
+      segment.slice(local, count * 4).asIntBuffer().get(target, read, count);
+      read += count;
+      offset += count * 4L;
+    }
+  }
+
+  private final class Cursor implements TraceCursor {
+    private MappedByteBuffer segment;
+    private int pos;
+    private int block = -1;
+    private int remaining;
+    private int previousIndex;
+    private int previousValue;
+
+    @Override
+    public long size() {
+      return operations;
+    }
+
+    @Override
+    public int getArrayLength() {
+      return arrayLength;
+    }
+
+    @Override
+    public long checkpointBefore(long target) {
+      return Math.min(target / checkpointInterval, checkpointCount - 1) * checkpointInterval;
+    }
+
+    @Override
+    public long restore(long target, int[] array) {
+      int k = (int) Math.min(target / checkpointInterval, checkpointCount - 1);
+      readInts(checkpointOffset(k), array);
+      long position = k * checkpointInterval;
+      skipTo(position);
+      return position;
+    }
+
+    // Blocks open lazily, so a position on a block boundary (including the
+    // end of the trace) decodes nothing.
+    @Override
+    public void skipTo(long position) {
+      block = (int) (position / blockOps) - 1;
+      remaining = 0;
+      int within = (int) (position % blockOps);
+      if (within > 0) {
+        openBlock(++block);
+        for (int k = 0; k < within; k++) {
+          next();
+        }
+      }
+    }
+
+    @Override
+    public long next() {
+      if (remaining == 0) {
+        openBlock(++block);
+      }
+      remaining--;
+
+      long head = readVarLong();
+      int opcode = (int) (head & TraceFormat.OPCODE_MASK);
+      int a = (int) (previousIndex + TraceFormat.unzigzag(head >>> TraceFormat.DELTA_SHIFT));
+      previousIndex = a;
+      int b;
+      if ((head & TraceFormat.ADJACENT) != 0) {
+        b = a + 1;
+      } else if (opcode == OperationTrace.WRITE) {
+        b = (int) (previousValue + TraceFormat.unzigzag(readVarLong()));
+        previousValue = b;
+      } else if (opcode == OperationTrace.READ) {
+        b = -1;
+      } else {
+        b = (int) (a + TraceFormat.unzigzag(readVarLong()));
+      }
+      return OperationTrace.pack(opcode, a, b);
+    }
+
+    private void openBlock(int k) {
+      long offset = blockOffset(k);
+      segment = segments[(int) (offset / segmentBytes)];
+      pos = (int) (offset % segmentBytes);
+      remaining = segment.getInt(pos);
+      pos += TraceFormat.BLOCK_HEADER_BYTES;
+      previousIndex = 0;
+      previousValue = 0;
+    }
+
+    private long readVarLong() {
+      long value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = segment.get(pos++);
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      return value;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package trace;
+
+// Layout of a .strace file, all integers big-endian:
+//
+//   header      MAGIC, VERSION, array length, ops per block (ints),
+//               checkpoint interval (long)
+//   checkpoint  the initial array as raw ints
+//   blocks      int op count, int payload bytes, payload; a checkpoint of
+//               the whole array precedes every block that starts at a
+//               multiple of the checkpoint interval
+//   indexes     one long file offset per block, then one per checkpoint
+//   footer      long ops, long block index offset, int block count,
+//               long checkpoint index offset, int checkpoint count, MAGIC
+//
+// Each operation in a payload is a varint of the zigzag delta from the
+// previous first index, shifted left over an ADJACENT flag and the opcode.
+// Compares and swaps follow it with a varint of the zigzag distance to the
+// second index unless the flag says it is the next index, writes with the
+// zigzag delta from the previous written value, and reads carry no operand.
+// Deltas restart at zero in every block, so decoding can begin at any block.
+final class TraceFormat {
+  static final int MAGIC = 0x53545243; // "STRC"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 24;
+  static final int FOOTER_BYTES = 36;
+  static final int BLOCK_HEADER_BYTES = 8;
+  static final int BLOCK_OPS = 4096;
+  static final int OPCODE_MASK = 3;
+  static final int ADJACENT = 4;
+  static final int DELTA_SHIFT = 3;
+  // A 36-bit and a 33-bit varint.
+  static final int MAX_OP_BYTES = 11;
+  static final int MIN_CHECKPOINT_INTERVAL = 16 * BLOCK_OPS;
+
+  // Checkpoints cost four bytes per element and an encoded operation one to
+  // three, so spacing them eight operations per element keeps them to
+  // roughly a fifth of the file.
+  static long checkpointInterval(int arrayLength) {
+    long interval = Math.max(MIN_CHECKPOINT_INTERVAL, 8L * arrayLength);
+    return (interval + BLOCK_OPS - 1) / BLOCK_OPS * BLOCK_OPS;
+  }
+
+  static long zigzag(long v) {
+    return (v << 1) ^ (v >> 63);
+  }
+
+  static long unzigzag(long z) {
+    return (z >>> 1) ^ -(z & 1);
+  }
+
+  static int putVarLong(byte[] out, int pos, long v) {
+    while ((v & ~0x7FL) != 0) {
+      out[pos++] = (byte) ((v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    out[pos++] = (byte) v;
+    return pos;
+  }
+
+  private TraceFormat() {
+  }
+}
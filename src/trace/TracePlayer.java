@@ -0,0 +1,191 @@
+package trace;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import audio.Voice;
+import model.StepGate;
+import ui.callbacks.VisualizationCallback;
+
+public class TracePlayer {
+  // Memory for in-memory rewind snapshots, in MB.
+  private static final long SNAPSHOT_BUDGET = Long.getLong("visualizer.snapshotBudgetMb", 64) << 20;
+  // A step back replays up to one snapshot interval, so arrays too large for
+  // this many snapshots in the budget get more room, up to a quarter of the
+  // heap.
+  static final int MIN_SNAPSHOTS = 32;
+
+  private final TraceCursor trace;
+  private final int[] array;
+  private final VisualizationCallback callback;
+  private final AtomicBoolean stopRequested;
+  private final boolean soundEnabled;
+  private final Voice voice;
+  private final Snapshots snapshots;
+  private long nextSnapshot;
+  private StepGate stepGate;
+  private long position;
+  // Position as of the last step, for other threads following playback.
+  private volatile long published;
+  private int opsPerStep = 1;
+
+  public TracePlayer(OperationTrace trace, int[] array, VisualizationCallback callback,
+      AtomicBoolean stopRequested, boolean soundEnabled, Voice voice) {
+    this(trace.cursor(), array, callback, stopRequested, soundEnabled, voice);
+  }
+
+  // The callback may be null for a player that is only seeked.
+  public TracePlayer(TraceFile trace, int[] array, VisualizationCallback callback,
+      AtomicBoolean stopRequested, boolean soundEnabled, Voice voice) {
+    this(trace.cursor(), array, callback, stopRequested, soundEnabled, voice);
+  }
+
+  TracePlayer(TraceCursor trace, int[] array, VisualizationCallback callback,
+      AtomicBoolean stopRequested, boolean soundEnabled, Voice voice) {
+    if (array.length != trace.getArrayLength()) {
+      throw new IllegalArgumentException("Array length " + array.length
+          + " does not match trace length " + trace.getArrayLength());
+    }
+    this.trace = trace;
+    this.array = array;
+    this.callback = callback;
+    this.stopRequested = stopRequested;
+    this.soundEnabled = soundEnabled;
+    this.voice = voice;
+    this.snapshots = new Snapshots(array.length, trace.size(), snapshotBudget(array.length));
+    position = trace.restore(0, array);
+    snapshots.passed(0, array);
+    nextSnapshot = snapshots.interval();
+  }
+
+  private static long snapshotBudget(int arrayLength) {
+    long scaled = MIN_SNAPSHOTS * Snapshots.bytesPerSnapshot(arrayLength);
+    return Math.max(SNAPSHOT_BUDGET, Math.min(scaled, Runtime.getRuntime().maxMemory() / 4));
+  }
+
+  // While the gate is paused, play() waits for steps instead of running.
+  public void setStepGate(StepGate stepGate) {
+    this.stepGate = stepGate;
+  }
+
+  public void setOpsPerStep(int opsPerStep) {
+    this.opsPerStep = Math.max(1, opsPerStep);
+  }
+
+  // Safe to call from any thread; lags play() by at most one step.
+  public long getPosition() {
+    return published;
+  }
+
+  public long getLength() {
+    return trace.size();
+  }
+
+  // Returns at the end of the trace unless paused there, so a paused run
+  // can still step back from its last operation.
+  public void play() {
+    while (!stopRequested.get()) {
+      if (stepGate != null && stepGate.isPaused()) {
+        long steps = stepGate.await(stopRequested);
+        if (steps > 0) {
+          advance(Math.min(trace.size(), position + steps), true);
+          published = position;
+        } else if (steps < 0) {
+          seek(position + steps);
+          callback.onClearHighlights();
+        }
+        continue;
+      }
+      if (position >= trace.size())
+        break;
+      advance(Math.min(trace.size(), position + opsPerStep), true);
+      published = position;
+      callback.onStepDelay();
+    }
+    callback.onClearHighlights();
+  }
+
+  // Jumps through the nearest snapshot or file checkpoint when going
+  // backwards or when one lies between here and the target, then replays
+  // forward unanimated, so the cost is bounded by the snapshot interval.
+  public void seek(long target) {
+    target = Math.max(0, Math.min(trace.size(), target));
+    long snapshot = snapshots.before(target);
+    long checkpoint = trace.checkpointBefore(target);
+    if (target < position || Math.max(snapshot, checkpoint) > position) {
+      if (snapshot >= checkpoint) {
+        position = snapshots.restore(target, array);
+        trace.skipTo(position);
+      } else {
+        position = trace.restore(target, array);
+        snapshots.invalidate();
+        if (position % snapshots.interval() == 0) {
+          snapshots.passed(position, array);
+        }
+      }
+      nextSnapshot = (position / snapshots.interval() + 1) * snapshots.interval();
+    }
+    advance(target, false);
+    published = position;
+    if (callback != null) {
+      callback.onRepaint();
+    }
+  }
+
+  private void advance(long end, boolean animate) {
+    while (position < end) {
+      apply(trace.next(), animate);
+      position++;
+      if (position == nextSnapshot) {
+        snapshots.passed(position, array);
+        nextSnapshot += snapshots.interval();
+      }
+    }
+  }
+
+  private void apply(long operation, boolean animate) {
+    int a = OperationTrace.firstOf(operation);
+    int b = OperationTrace.secondOf(operation);
+    switch (OperationTrace.opcodeOf(operation)) {
+      case OperationTrace.COMPARE -> {
+        if (animate) {
+          callback.onHighlight(a, b);
+          callback.onIncrementComparisons();
+          if (soundEnabled) {
+            voice.playCompare(array[a], b >= 0 ? array[b] : array[a]);
+          }
+        }
+      }
+      case OperationTrace.SWAP -> {
+        int t = array[a];
+        array[a] = array[b];
+        array[b] = t;
+        snapshots.touch(a);
+        snapshots.touch(b);
+        if (animate) {
+          callback.onHighlight(a, b);
+          callback.onIncrementSwaps();
+          if (soundEnabled) {
+            voice.playSwap(array[a], array[b]);
+          }
+          callback.onArrayChanged(a, b);
+        }
+      }
+      case OperationTrace.WRITE -> {
+        array[a] = b;
+        snapshots.touch(a);
+        if (animate) {
+          callback.onHighlight(a, -1);
+          callback.onIncrementWrites();
+          callback.onArrayChanged(a, -1);
+        }
+      }
+      case OperationTrace.READ -> {
+        if (animate) {
+          callback.onHighlight(a, -1);
+          callback.onIncrementReads();
+        }
+      }
+      default -> throw new IllegalStateException("Unknown opcode at " + position);
+    }
+  }
+}
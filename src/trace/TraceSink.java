@@ -0,0 +1,5 @@
+package trace;
+
+public interface TraceSink {
+  void append(int opcode, int a, int b);
+}
@@ -0,0 +1,191 @@
+package trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Streams operations into a .strace file (see TraceFormat). Only the block
+// being encoded, one output buffer, a shadow copy of the array for
+// checkpoints and the offset indexes are held in memory.
+public class TraceWriter implements TraceSink, Closeable {
+  private static final int BUFFER_BYTES = 1 << 20;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+  private final int[] shadow;
+  private final long checkpointInterval;
+  private final byte[] block = new byte[TraceFormat.BLOCK_OPS * TraceFormat.MAX_OP_BYTES];
+  private int blockBytes;
+  private int blockOps;
+  private int previousIndex;
+  private int previousValue;
+  private long operations;
+  private long[] blockOffsets = new long[64];
+  private int blockCount;
+  private long[] checkpointOffsets = new long[16];
+  private int checkpointCount;
+  private boolean closed;
+
+  public TraceWriter(Path path, int[] initialArray) throws IOException {
+    this(path, initialArray, TraceFormat.checkpointInterval(initialArray.length));
+  }
+
+  public TraceWriter(Path path, int[] initialArray, long checkpointInterval) throws IOException {
+    if (checkpointInterval <= 0 || checkpointInterval % TraceFormat.BLOCK_OPS != 0) {
+      throw new IllegalArgumentException("Checkpoint interval must be a positive multiple of "
+          + TraceFormat.BLOCK_OPS);
+    }
+    this.shadow = Arrays.copyOf(initialArray, initialArray.length);
+    this.checkpointInterval = checkpointInterval;
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    buffer.putInt(TraceFormat.MAGIC);
+    buffer.putInt(TraceFormat.VERSION);
+    buffer.putInt(shadow.length);
+    buffer.putInt(TraceFormat.BLOCK_OPS);
+    buffer.putLong(checkpointInterval);
+    writeCheckpoint();
+  }
+
+  @Override
+  public void append(int opcode, int a, int b) {
+    if (blockOps == TraceFormat.BLOCK_OPS) {
+      flushBlock();
+    }
+    if (blockOps == 0 && operations > 0 && operations % checkpointInterval == 0) {
+      writeCheckpoint();
+    }
+
+    boolean adjacent = b == a + 1 && (opcode == OperationTrace.COMPARE || opcode == OperationTrace.SWAP);
+    int pos = TraceFormat.putVarLong(block, blockBytes, TraceFormat.zigzag((long) a - previousIndex)
+        << TraceFormat.DELTA_SHIFT | (adjacent ? TraceFormat.ADJACENT : 0) | opcode);
+    previousIndex = a;
+    switch (opcode) {
+      case OperationTrace.COMPARE -> {
+        if (!adjacent) {
+          pos = TraceFormat.putVarLong(block, pos, TraceFormat.zigzag((long) b - a));
+        }
+      }
+      case OperationTrace.SWAP -> {
+        if (!adjacent) {
+          pos = TraceFormat.putVarLong(block, pos, TraceFormat.zigzag((long) b - a));
+        }
+        int t = shadow[a];
+        shadow[a] = shadow[b];
+        shadow[b] = t;
+      }
+      case OperationTrace.WRITE -> {
+        pos = TraceFormat.putVarLong(block, pos, TraceFormat.zigzag((long) b - previousValue));
+        previousValue = b;
+        shadow[a] = b;
+      }
+      case OperationTrace.READ -> {
+      }
+      default -> throw new IllegalArgumentException("Unknown opcode " + opcode);
+    }
+    blockBytes = pos;
+    blockOps++;
+    operations++;
+  }
+
+  public long getOperationCount() {
+    return operations;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+    try {
+      if (blockOps > 0) {
+        flushBlock();
+      }
+      long blockIndexOffset = position();
+      for (int k = 0; k < blockCount; k++) {
+        ensureRoom(8);
+        buffer.putLong(blockOffsets[k]);
+      }
+      long checkpointIndexOffset = position();
+      for (int k = 0; k < checkpointCount; k++) {
+        ensureRoom(8);
+        buffer.putLong(checkpointOffsets[k]);
+      }
+      ensureRoom(TraceFormat.FOOTER_BYTES);
+      buffer.putLong(operations);
+      buffer.putLong(blockIndexOffset);
+      buffer.putInt(blockCount);
+      buffer.putLong(checkpointIndexOffset);
+      buffer.putInt(checkpointCount);
+      buffer.putInt(TraceFormat.MAGIC);
+      drain();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void flushBlock() {
+    try {
+      if (blockCount == blockOffsets.length) {
+        blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+      }
+      blockOffsets[blockCount++] = position();
+      ensureRoom(TraceFormat.BLOCK_HEADER_BYTES);
+      buffer.putInt(blockOps);
+      buffer.putInt(blockBytes);
+      for (int written = 0; written < blockBytes;) {
+        ensureRoom(1);
+        int count = Math.min(blockBytes - written, buffer.remaining());
+        buffer.put(block, written, count);
+        written += count;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    blockBytes = 0;
+    blockOps = 0;
+    previousIndex = 0;
+    previousValue = 0;
+  }
+
+  private void writeCheckpoint() {
+    try {
+      if (checkpointCount == checkpointOffsets.length) {
+        checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpointCount * 2);
+      }
+      checkpointOffsets[checkpointCount++] = position();
+      for (int written = 0; written < shadow.length;) {
+        ensureRoom(4);
+        int count = Math.min(shadow.length - written, buffer.remaining() / 4);
+        buffer.asIntBuffer().put(shadow, written, count);
+        buffer.position(buffer.position() + count * 4);
+        written += count;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private long position() throws IOException {
+    return channel.position() + buffer.position();
+  }
+
+  private void ensureRoom(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      drain();
+    }
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
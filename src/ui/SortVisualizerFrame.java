@@ -7,6 +7,9 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.GridLayout;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.BorderFactory;
@@ -15,51 +18,97 @@ import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JScrollPane;
 import javax.swing.JSlider;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
 import javax.swing.JToggleButton;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 import javax.swing.border.EmptyBorder;
 
+import algorithms.AlgorithmRegistry;
+import algorithms.SortAlgorithm;
 import audio.ToneGenerator;
-import constants.AlgorithmConstants;
 import constants.UIConstants;
+import model.ExecutionMode;
+import model.Pacer;
 import model.SortingState;
+import model.WorkerPools;
+import trace.TraceFile;
 import ui.components.BarPanel;
+import ui.components.LeaderboardModel;
+import ui.components.RaceGridPanel;
 import ui.components.UIComponentFactory;
 import ui.controllers.SortController;
 import util.ArrayGenerator;
 
 public class SortVisualizerFrame extends JFrame {
+  private static final int MAX_SPEED = 100;
+  private static final int SIZE_STEPS = 100;
+  private static final int MIN_SIZE = 10;
+  private static final int MAX_SIZE = 2_000_000;
+  // Looked up by name, since new algorithms and plugins shift registry
+  // positions.
+  private static final String DEFAULT_SECOND = "Merge Sort";
+  private static final String[] DEFAULT_RACE = { "Merge Sort", "Quick Sort", "Heap Sort", "Shell Sort" };
+  private static final int TIMELINE_STEPS = 100_000;
+  private static final long[] STEP_SIZES = { 1, 10, 100, 1_000, 10_000, 100_000 };
+
   private BarPanel barPanel;
   private BarPanel barPanel1;
   private BarPanel barPanel2;
   private JPanel visualizationPanel;
   private CardLayout vizCardLayout;
+  private final RaceGridPanel raceGrid = new RaceGridPanel();
+  private final LeaderboardModel leaderboard = new LeaderboardModel();
+  private final List<SortAlgorithm> raceAlgorithms = new ArrayList<>();
+  private final List<SortingState> raceStates = new ArrayList<>();
+  private TraceFile loadedTrace;
+  private long timelinePosition;
+  private boolean followingPlayback = false;
 
   private final JComboBox<String> algoCombo;
   private final JComboBox<String> algoCombo1;
   private final JComboBox<String> algoCombo2;
+  private final JComboBox<String> modeCombo;
   private final JSlider sizeSlider;
   private final JSlider speedSlider;
+  private final JSlider timelineSlider;
   private final JCheckBox soundToggle;
   private final JButton startBtn;
   private final JButton stopBtn;
   private final JToggleButton compareToggle;
+  private final JToggleButton raceToggle;
+  private final JButton raceChooseBtn;
   private final JButton backToSingleBtn;
+  private final JButton saveTraceBtn;
+  private final JButton openTraceBtn;
+  private final JButton pauseBtn;
+  private final JButton stepBackBtn;
+  private final JButton stepBtn;
+  private final JComboBox<String> stepCombo;
   private final JLabel sizeLabel;
   private final JLabel speedLabel;
   private final JLabel algoDescLabel;
   private final JLabel comparisonResultLabel;
+  private final JLabel raceSelectionLabel;
+  private final JLabel timelineLabel;
+  private final JProgressBar progressBar;
+  private JPanel timelinePanel;
 
   private final AtomicBoolean running = new AtomicBoolean(false);
+  private volatile double opsPerSecond = opsPerSecondFor(50);
   private final SortingState singleState = new SortingState();
   private final SortingState state1 = new SortingState();
   private final SortingState state2 = new SortingState();
 
+  private final AlgorithmRegistry registry = AlgorithmRegistry.getDefault();
   private final ToneGenerator toneGenerator;
   private SortController sortController;
 
@@ -78,13 +127,14 @@ public class SortVisualizerFrame extends JFrame {
     barPanel1.setComparisonMode(true, "Algorithm 1");
     barPanel2.setComparisonMode(true, "Algorithm 2");
 
-    algoCombo = UIComponentFactory.createStyledComboBox(AlgorithmConstants.ALGORITHMS);
-    algoCombo1 = UIComponentFactory.createStyledComboBox(AlgorithmConstants.ALGORITHMS);
-    algoCombo2 = UIComponentFactory.createStyledComboBox(AlgorithmConstants.ALGORITHMS);
-    algoCombo2.setSelectedIndex(3);
+    algoCombo = UIComponentFactory.createStyledComboBox(registry.getNames());
+    algoCombo1 = UIComponentFactory.createStyledComboBox(registry.getNames());
+    algoCombo2 = UIComponentFactory.createStyledComboBox(registry.getNames());
+    algoCombo2.setSelectedIndex(defaultIndices(DEFAULT_SECOND)[0]);
+    modeCombo = UIComponentFactory.createStyledComboBox(ExecutionMode.labels());
 
-    sizeSlider = UIComponentFactory.createStyledSlider(10, 400, 100);
-    speedSlider = UIComponentFactory.createStyledSlider(1, 100, 60);
+    sizeSlider = UIComponentFactory.createStyledSlider(0, SIZE_STEPS, 19);
+    speedSlider = UIComponentFactory.createStyledSlider(1, MAX_SPEED, 50);
     soundToggle = UIComponentFactory.createStyledCheckBox("🔊 Sound", true);
 
     startBtn = UIComponentFactory.createStyledButton("▶ Start",
@@ -94,16 +144,44 @@ public class SortVisualizerFrame extends JFrame {
     stopBtn.setEnabled(false);
 
     compareToggle = UIComponentFactory.createStyledToggleButton("⚖ Compare Mode");
+    raceToggle = UIComponentFactory.createStyledToggleButton("🏁 Race Mode");
+    raceChooseBtn = UIComponentFactory.createStyledButton("Choose algorithms…",
+        UIConstants.COMPARE_BTN_COLOR, UIConstants.COMPARE_BTN_ACTIVE);
     backToSingleBtn = UIComponentFactory.createStyledButton("← Single Mode",
         UIConstants.BACK_BTN_COLOR, UIConstants.BACK_BTN_HOVER);
     backToSingleBtn.setVisible(false);
+    saveTraceBtn = UIComponentFactory.createStyledButton("💾 Save Trace",
+        UIConstants.BACK_BTN_COLOR, UIConstants.BACK_BTN_HOVER);
+    saveTraceBtn.setToolTipText("Record the selected algorithm on this input to a .strace file");
+    openTraceBtn = UIComponentFactory.createStyledButton("📂 Open Trace",
+        UIConstants.BACK_BTN_COLOR, UIConstants.BACK_BTN_HOVER);
+    openTraceBtn.setToolTipText("Load a .strace file; Start plays it from the timeline position");
+    timelineSlider = UIComponentFactory.createStyledSlider(0, TIMELINE_STEPS, 0);
+
+    pauseBtn = UIComponentFactory.createStyledButton("⏸ Pause",
+        UIConstants.COMPARE_BTN_COLOR, UIConstants.COMPARE_BTN_ACTIVE);
+    pauseBtn.setEnabled(false);
+    stepBackBtn = UIComponentFactory.createStyledButton("⏮",
+        UIConstants.BACK_BTN_COLOR, UIConstants.BACK_BTN_HOVER);
+    stepBackBtn.setToolTipText("Step back (Record & Replay and trace playback)");
+    stepBackBtn.setEnabled(false);
+    stepBtn = UIComponentFactory.createStyledButton("⏭",
+        UIConstants.BACK_BTN_COLOR, UIConstants.BACK_BTN_HOVER);
+    stepBtn.setToolTipText("Step forward");
+    stepBtn.setEnabled(false);
+    String[] stepLabels = new String[STEP_SIZES.length];
+    for (int k = 0; k < STEP_SIZES.length; k++) {
+      stepLabels[k] = String.format("%,d op%s", STEP_SIZES[k], STEP_SIZES[k] == 1 ? "" : "s");
+    }
+    stepCombo = UIComponentFactory.createStyledComboBox(stepLabels);
+    stepCombo.setEnabled(false);
 
     sizeLabel = UIComponentFactory.createValueLabel();
-    sizeLabel.setText("100");
+    sizeLabel.setText(String.format("%,d", getArraySize()));
     speedLabel = UIComponentFactory.createValueLabel();
-    speedLabel.setText("60");
+    speedLabel.setText(Pacer.describe(opsPerSecond));
 
-    algoDescLabel = new JLabel(AlgorithmConstants.DESCRIPTIONS[0]);
+    algoDescLabel = new JLabel(registry.get(0).getDescription());
     algoDescLabel.setFont(new Font("Inter", Font.PLAIN, 12));
     algoDescLabel.setForeground(UIConstants.TEXT_SECONDARY);
 
@@ -112,6 +190,21 @@ public class SortVisualizerFrame extends JFrame {
     comparisonResultLabel.setForeground(new Color(59, 130, 246));
     comparisonResultLabel.setHorizontalAlignment(SwingConstants.CENTER);
 
+    raceSelectionLabel = new JLabel();
+    raceSelectionLabel.setFont(new Font("Inter", Font.PLAIN, 12));
+    raceSelectionLabel.setForeground(UIConstants.TEXT_SECONDARY);
+    setRaceSelection(defaultIndices(DEFAULT_RACE));
+
+    timelineLabel = UIComponentFactory.createValueLabel();
+
+    progressBar = new JProgressBar(0, 1000);
+    progressBar.setStringPainted(true);
+    progressBar.setFont(UIConstants.FONT_REGULAR);
+    progressBar.setForeground(UIConstants.COMPARE_BTN_COLOR);
+    progressBar.setBackground(UIConstants.PANEL_BG);
+    progressBar.setBorder(BorderFactory.createLineBorder(UIConstants.BORDER_COLOR, 1));
+    progressBar.setVisible(false);
+
     sortController = new SortController(this);
 
     setupUI();
@@ -169,9 +262,11 @@ public class SortVisualizerFrame extends JFrame {
 
     JPanel singleAlgoPanel = createSingleAlgorithmPanel();
     JPanel compAlgoPanel = createComparisonAlgorithmPanel();
+    JPanel raceAlgoPanel = createRaceAlgorithmPanel();
 
     algoSelectionPanel.add(singleAlgoPanel, "single");
     algoSelectionPanel.add(compAlgoPanel, "compare");
+    algoSelectionPanel.add(raceAlgoPanel, "race");
 
     return algoSelectionPanel;
   }
@@ -217,6 +312,21 @@ public class SortVisualizerFrame extends JFrame {
     return compAlgoPanel;
   }
 
+  private JPanel createRaceAlgorithmPanel() {
+    JPanel raceAlgoPanel = new JPanel(new BorderLayout(8, 8));
+    raceAlgoPanel.setBackground(UIConstants.PANEL_BG);
+
+    JLabel raceLabel = new JLabel("Race Algorithms");
+    raceLabel.setFont(UIConstants.FONT_BOLD);
+    raceLabel.setForeground(UIConstants.TEXT_PRIMARY);
+
+    raceAlgoPanel.add(raceLabel, BorderLayout.NORTH);
+    raceAlgoPanel.add(raceChooseBtn, BorderLayout.CENTER);
+    raceAlgoPanel.add(raceSelectionLabel, BorderLayout.SOUTH);
+
+    return raceAlgoPanel;
+  }
+
   private JPanel createSliderPanel() {
     JPanel sliderPanel = new JPanel(new GridLayout(2, 1, 0, 15));
     sliderPanel.setBackground(UIConstants.PANEL_BG);
@@ -234,10 +344,18 @@ public class SortVisualizerFrame extends JFrame {
     JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 12, 0));
     buttonPanel.setBackground(UIConstants.PANEL_BG);
     buttonPanel.add(compareToggle);
+    buttonPanel.add(raceToggle);
     buttonPanel.add(backToSingleBtn);
+    buttonPanel.add(modeCombo);
     buttonPanel.add(soundToggle);
     buttonPanel.add(startBtn);
     buttonPanel.add(stopBtn);
+    buttonPanel.add(pauseBtn);
+    buttonPanel.add(stepBackBtn);
+    buttonPanel.add(stepCombo);
+    buttonPanel.add(stepBtn);
+    buttonPanel.add(saveTraceBtn);
+    buttonPanel.add(openTraceBtn);
     stopBtn.setVisible(true);
 
     return buttonPanel;
@@ -254,11 +372,14 @@ public class SortVisualizerFrame extends JFrame {
 
     JPanel singleVizCard = createSingleVisualizationCard();
     JPanel compVizCard = createComparisonVisualizationCard();
+    JPanel raceVizCard = createRaceVisualizationCard();
 
     visualizationPanel.add(singleVizCard, "single");
     visualizationPanel.add(compVizCard, "compare");
+    visualizationPanel.add(raceVizCard, "race");
 
     vizContainer.add(visualizationPanel, BorderLayout.CENTER);
+    vizContainer.add(progressBar, BorderLayout.SOUTH);
 
     return vizContainer;
   }
@@ -271,6 +392,11 @@ public class SortVisualizerFrame extends JFrame {
         new EmptyBorder(2, 2, 2, 2)));
     singleVizCard.add(barPanel, BorderLayout.CENTER);
 
+    timelinePanel = UIComponentFactory.createSliderPanel("Trace Timeline", timelineSlider, timelineLabel);
+    timelinePanel.setBorder(new EmptyBorder(8, 12, 8, 12));
+    timelinePanel.setVisible(false);
+    singleVizCard.add(timelinePanel, BorderLayout.SOUTH);
+
     return singleVizCard;
   }
 
@@ -295,6 +421,26 @@ public class SortVisualizerFrame extends JFrame {
     return compVizCard;
   }
 
+  private JPanel createRaceVisualizationCard() {
+    JPanel raceVizCard = new JPanel(new BorderLayout(0, 10));
+    raceVizCard.setBackground(UIConstants.BG_COLOR);
+
+    JTable table = new JTable(leaderboard);
+    table.setFont(UIConstants.FONT_REGULAR);
+    table.getTableHeader().setFont(UIConstants.FONT_BOLD);
+    table.setRowHeight(22);
+    table.setFillsViewportHeight(true);
+    table.getColumnModel().getColumn(0).setMaxWidth(40);
+    JScrollPane leaderboardPane = new JScrollPane(table);
+    leaderboardPane.setBorder(BorderFactory.createLineBorder(UIConstants.BORDER_COLOR, 1));
+    leaderboardPane.setPreferredSize(new Dimension(0, 140));
+
+    raceVizCard.add(raceGrid, BorderLayout.CENTER);
+    raceVizCard.add(leaderboardPane, BorderLayout.SOUTH);
+
+    return raceVizCard;
+  }
+
   private JPanel createVisualizationCard(BarPanel panel) {
     JPanel vizCard = new JPanel(new BorderLayout());
     vizCard.setBackground(UIConstants.PANEL_BG);
@@ -321,6 +467,11 @@ public class SortVisualizerFrame extends JFrame {
   private void setupListeners() {
     startBtn.addActionListener(e -> sortController.startSorting());
     stopBtn.addActionListener(e -> sortController.requestStop());
+    saveTraceBtn.addActionListener(e -> sortController.saveTrace());
+    openTraceBtn.addActionListener(e -> sortController.openTrace());
+    pauseBtn.addActionListener(e -> sortController.togglePause());
+    stepBtn.addActionListener(e -> sortController.step(STEP_SIZES[stepCombo.getSelectedIndex()]));
+    stepBackBtn.addActionListener(e -> sortController.step(-STEP_SIZES[stepCombo.getSelectedIndex()]));
 
     backToSingleBtn.addActionListener(e -> {
       if (running.get()) {
@@ -330,6 +481,7 @@ public class SortVisualizerFrame extends JFrame {
         return;
       }
       compareToggle.setSelected(false);
+      raceToggle.setSelected(false);
       switchToSingleMode();
     });
 
@@ -350,71 +502,266 @@ public class SortVisualizerFrame extends JFrame {
       }
     });
 
+    raceToggle.addActionListener(e -> {
+      if (running.get()) {
+        raceToggle.setSelected(!raceToggle.isSelected());
+        JOptionPane.showMessageDialog(this,
+            "Please stop the current sorting before changing mode.",
+            "Cannot Change Mode", JOptionPane.WARNING_MESSAGE);
+        return;
+      }
+
+      if (raceToggle.isSelected()) {
+        switchToRaceMode();
+      } else {
+        switchToSingleMode();
+      }
+    });
+
+    raceChooseBtn.addActionListener(e -> chooseRaceAlgorithms());
+
     algoCombo.addActionListener(e -> {
-      int index = algoCombo.getSelectedIndex();
-      algoDescLabel.setText(AlgorithmConstants.DESCRIPTIONS[index]);
-      barPanel.setAlgorithmName(AlgorithmConstants.ALGORITHMS[index]);
+      SortAlgorithm algorithm = getSelectedAlgorithm();
+      algoDescLabel.setText(algorithm.getDescription());
+      barPanel.setAlgorithmName(algorithm.getName());
+      sortController.prefetchTraces();
     });
 
+    modeCombo.addActionListener(e -> sortController.prefetchTraces());
+
     algoCombo1.addActionListener(e -> {
-      barPanel1.setAlgorithmName(AlgorithmConstants.ALGORITHMS[algoCombo1.getSelectedIndex()]);
+      barPanel1.setAlgorithmName(getSelectedAlgorithm1().getName());
+      sortController.prefetchTraces();
     });
 
     algoCombo2.addActionListener(e -> {
-      barPanel2.setAlgorithmName(AlgorithmConstants.ALGORITHMS[algoCombo2.getSelectedIndex()]);
+      barPanel2.setAlgorithmName(getSelectedAlgorithm2().getName());
+      sortController.prefetchTraces();
     });
 
     sizeSlider.addChangeListener(e -> {
-      int value = sizeSlider.getValue();
-      sizeLabel.setText(String.valueOf(value));
+      sizeLabel.setText(String.format("%,d", getArraySize()));
       if (!sizeSlider.getValueIsAdjusting() && !running.get()) {
         generateData();
       }
     });
 
     speedSlider.addChangeListener(e -> {
-      int value = speedSlider.getValue();
-      speedLabel.setText(String.valueOf(value));
+      opsPerSecond = opsPerSecondFor(speedSlider.getValue());
+      speedLabel.setText(Pacer.describe(opsPerSecond));
     });
+
+    timelineSlider.addChangeListener(e -> {
+      if (loadedTrace == null || followingPlayback)
+        return;
+      timelinePosition = Math.round((double) timelineSlider.getValue() / timelineSlider.getMaximum()
+          * loadedTrace.size());
+      timelineLabel.setText(String.format("%,d / %,d", timelinePosition, loadedTrace.size()));
+      if (!running.get()) {
+        sortController.seekTrace(timelinePosition);
+      }
+    });
+
+    // Audio opens after the first frame, or when sound is first switched on.
+    barPanel.whenFirstPainted(this::requestAudio);
+    soundToggle.addActionListener(e -> requestAudio());
   }
 
-  private void switchToCompareMode() {
-    CardLayout algoLayout = (CardLayout) ((JPanel) algoCombo.getParent().getParent()).getLayout();
-    algoLayout.show((JPanel) algoCombo.getParent().getParent(), "compare");
-    vizCardLayout.show(visualizationPanel, "compare");
+  private void requestAudio() {
+    if (soundToggle.isSelected() && toneGenerator.getState() == ToneGenerator.State.CLOSED) {
+      soundToggle.setText("🔊 Sound (starting)");
+      soundToggle.setToolTipText("Opening the audio output");
+      toneGenerator.openAsync(() -> SwingUtilities.invokeLater(this::updateSoundToggle));
+    }
+  }
 
-    compareToggle.setBackground(UIConstants.COMPARE_BTN_ACTIVE);
-    compareToggle.setText("⚖ Compare Mode ✓");
-    backToSingleBtn.setVisible(true);
+  private void updateSoundToggle() {
+    if (toneGenerator.isAvailable()) {
+      soundToggle.setText("🔊 Sound");
+      soundToggle.setToolTipText(null);
+    } else {
+      soundToggle.setText("🔇 No audio");
+      soundToggle.setToolTipText("No audio output device is available");
+      soundToggle.setSelected(false);
+      soundToggle.setEnabled(false);
+    }
+  }
 
-    generateData();
+  private void switchToCompareMode() {
+    raceToggle.setSelected(false);
+    showMode("compare");
+  }
+
+  private void switchToRaceMode() {
+    compareToggle.setSelected(false);
+    showMode("race");
   }
 
   private void switchToSingleMode() {
+    showMode("single");
+  }
+
+  private void showMode(String card) {
     CardLayout algoLayout = (CardLayout) ((JPanel) algoCombo.getParent().getParent()).getLayout();
-    algoLayout.show((JPanel) algoCombo.getParent().getParent(), "single");
-    vizCardLayout.show(visualizationPanel, "single");
+    algoLayout.show((JPanel) algoCombo.getParent().getParent(), card);
+    vizCardLayout.show(visualizationPanel, card);
 
-    compareToggle.setBackground(UIConstants.COMPARE_BTN_COLOR);
-    compareToggle.setText("⚖ Compare Mode");
-    backToSingleBtn.setVisible(false);
+    boolean compare = card.equals("compare");
+    boolean race = card.equals("race");
+    compareToggle.setBackground(compare ? UIConstants.COMPARE_BTN_ACTIVE : UIConstants.COMPARE_BTN_COLOR);
+    compareToggle.setText(compare ? "⚖ Compare Mode ✓" : "⚖ Compare Mode");
+    raceToggle.setBackground(race ? UIConstants.COMPARE_BTN_ACTIVE : UIConstants.COMPARE_BTN_COLOR);
+    raceToggle.setText(race ? "🏁 Race Mode ✓" : "🏁 Race Mode");
+    backToSingleBtn.setVisible(compare || race);
 
     generateData();
   }
 
+  private void chooseRaceAlgorithms() {
+    if (running.get())
+      return;
+    JList<String> list = new JList<>(registry.getNames());
+    list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+    list.setVisibleRowCount(Math.min(16, registry.size()));
+    int[] selected = new int[raceAlgorithms.size()];
+    for (int k = 0; k < selected.length; k++) {
+      selected[k] = registry.getAlgorithms().indexOf(raceAlgorithms.get(k));
+    }
+    list.setSelectedIndices(selected);
+
+    int answer = JOptionPane.showConfirmDialog(this, new JScrollPane(list),
+        "Algorithms to race (Ctrl/Shift-click to pick several)",
+        JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+    if (answer == JOptionPane.OK_OPTION && list.getSelectedIndices().length > 0) {
+      setRaceSelection(list.getSelectedIndices());
+      generateData();
+    }
+  }
+
+  // Registry positions of the named defaults. If one is not registered, the
+  // first entries stand in for all of them rather than whatever sort now
+  // sits where the missing one was expected.
+  private int[] defaultIndices(String... names) {
+    int[] indices = new int[names.length];
+    for (int k = 0; k < names.length; k++) {
+      indices[k] = registry.indexOf(names[k]);
+      if (indices[k] < 0) {
+        System.err.println("Default algorithm " + names[k] + " is not registered; using the first entries");
+        int[] first = new int[Math.min(names.length, registry.size())];
+        for (int i = 0; i < first.length; i++) {
+          first[i] = i;
+        }
+        return first;
+      }
+    }
+    return indices;
+  }
+
+  // One lane and one SortingState per selected algorithm, at most as many as
+  // the run pool can race at once.
+  private void setRaceSelection(int[] indices) {
+    raceAlgorithms.clear();
+    raceStates.clear();
+    List<String> names = new ArrayList<>();
+    for (int index : indices) {
+      if (index < registry.size() && raceAlgorithms.size() < WorkerPools.MAX_RUNS) {
+        SortAlgorithm algorithm = registry.get(index);
+        raceAlgorithms.add(algorithm);
+        raceStates.add(new SortingState());
+        names.add(algorithm.getName());
+      }
+    }
+    raceGrid.setAlgorithms(names);
+    raceSelectionLabel.setText(names.size() + " algorithms on copies of the same input");
+    raceSelectionLabel.setToolTipText(String.join(", ", names));
+  }
+
   private void generateData() {
     if (running.get())
       return;
 
-    int[] arr = ArrayGenerator.generateRandomArray(sizeSlider.getValue());
+    unloadTrace();
+    int[] arr = ArrayGenerator.generateRandomArray(getArraySize());
 
-    if (compareToggle.isSelected()) {
+    if (raceToggle.isSelected()) {
+      raceGrid.setValues(arr);
+      leaderboard.clear();
+    } else if (compareToggle.isSelected()) {
       barPanel1.setValues(ArrayGenerator.copyArray(arr));
       barPanel2.setValues(ArrayGenerator.copyArray(arr));
       comparisonResultLabel.setText("");
     } else {
       barPanel.setValues(arr);
     }
+    sortController.prefetchTraces();
+  }
+
+  // Trace playback lives in the single-mode card; new data unloads it.
+  public void showTrace(TraceFile trace, int[] initialArray) {
+    if (compareToggle.isSelected() || raceToggle.isSelected()) {
+      compareToggle.setSelected(false);
+      raceToggle.setSelected(false);
+      switchToSingleMode();
+    }
+    unloadTrace();
+    loadedTrace = trace;
+    barPanel.setValues(initialArray);
+    barPanel.setAlgorithmName("Trace: " + trace.getPath().getFileName());
+    timelineSlider.setMaximum((int) Math.min(TIMELINE_STEPS, Math.max(1, trace.size())));
+    setTimelinePosition(0);
+    timelinePanel.setVisible(true);
+  }
+
+  private void unloadTrace() {
+    if (loadedTrace == null)
+      return;
+    try {
+      loadedTrace.close();
+    } catch (IOException e) {
+      sortController.reportFailure(e);
+    }
+    loadedTrace = null;
+    timelinePanel.setVisible(false);
+    barPanel.setAlgorithmName(getSelectedAlgorithm().getName());
+  }
+
+  public TraceFile getLoadedTrace() {
+    return loadedTrace;
+  }
+
+  public long getTimelinePosition() {
+    return timelinePosition;
+  }
+
+  // Moves the slider without asking for a seek.
+  public void setTimelinePosition(long position) {
+    if (loadedTrace == null)
+      return;
+    timelinePosition = position;
+    followingPlayback = true;
+    timelineSlider.setValue((int) Math.round((double) position / Math.max(1, loadedTrace.size())
+        * timelineSlider.getMaximum()));
+    followingPlayback = false;
+    timelineLabel.setText(String.format("%,d / %,d", position, loadedTrace.size()));
+  }
+
+  // Hidden unless the total is known.
+  public void showProgress(long done, long total) {
+    progressBar.setVisible(total > 0);
+    if (total > 0) {
+      progressBar.setValue((int) (1000 * done / total));
+      progressBar.setString(String.format("%,d / %,d operations", done, total));
+    }
+  }
+
+  // Steps only make sense while paused, and going back needs an operation
+  // log to rewind through.
+  public void showPaused(boolean paused) {
+    pauseBtn.setText(paused ? "▶ Resume" : "⏸ Pause");
+    stepBtn.setEnabled(paused);
+    stepCombo.setEnabled(paused);
+    stepBackBtn.setEnabled(paused
+        && (getExecutionMode() == ExecutionMode.REPLAY || loadedTrace != null));
   }
 
   // Getters for controller
@@ -434,6 +781,22 @@ public class SortVisualizerFrame extends JFrame {
     return state2;
   }
 
+  public List<SortingState> getRaceStates() {
+    return raceStates;
+  }
+
+  public List<SortAlgorithm> getRaceAlgorithms() {
+    return raceAlgorithms;
+  }
+
+  public RaceGridPanel getRaceGrid() {
+    return raceGrid;
+  }
+
+  public LeaderboardModel getLeaderboard() {
+    return leaderboard;
+  }
+
   public ToneGenerator getToneGenerator() {
     return toneGenerator;
   }
@@ -462,6 +825,22 @@ public class SortVisualizerFrame extends JFrame {
     return algoCombo2;
   }
 
+  public SortAlgorithm getSelectedAlgorithm() {
+    return registry.get(algoCombo.getSelectedIndex());
+  }
+
+  public SortAlgorithm getSelectedAlgorithm1() {
+    return registry.get(algoCombo1.getSelectedIndex());
+  }
+
+  public SortAlgorithm getSelectedAlgorithm2() {
+    return registry.get(algoCombo2.getSelectedIndex());
+  }
+
+  public ExecutionMode getExecutionMode() {
+    return ExecutionMode.values()[modeCombo.getSelectedIndex()];
+  }
+
   public JSlider getSpeedSlider() {
     return speedSlider;
   }
@@ -474,6 +853,10 @@ public class SortVisualizerFrame extends JFrame {
     return compareToggle;
   }
 
+  public boolean isRaceMode() {
+    return raceToggle.isSelected();
+  }
+
   public JLabel getComparisonResultLabel() {
     return comparisonResultLabel;
   }
@@ -483,22 +866,47 @@ public class SortVisualizerFrame extends JFrame {
       startBtn.setEnabled(enabled);
       stopBtn.setEnabled(!enabled);
       compareToggle.setEnabled(enabled);
+      raceToggle.setEnabled(enabled);
+      raceChooseBtn.setEnabled(enabled);
       backToSingleBtn.setEnabled(enabled);
+      saveTraceBtn.setEnabled(enabled);
+      openTraceBtn.setEnabled(enabled);
+      timelineSlider.setEnabled(enabled);
+      pauseBtn.setEnabled(!enabled);
+      if (enabled) {
+        showPaused(false);
+      }
       algoCombo.setEnabled(enabled);
       algoCombo1.setEnabled(enabled);
       algoCombo2.setEnabled(enabled);
+      modeCombo.setEnabled(enabled);
       sizeSlider.setEnabled(enabled);
-      soundToggle.setEnabled(true);
+      soundToggle.setEnabled(toneGenerator.getState() != ToneGenerator.State.UNAVAILABLE);
     });
   }
 
-  public void stepDelay() {
-    int sp = speedSlider.getValue();
-    int delay = Math.max(1, 120 - sp);
-    try {
-      Thread.sleep(delay);
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
+  public int getArraySize() {
+    return sizeFor(sizeSlider.getValue());
+  }
+
+  // Slider positions map logarithmically onto MIN_SIZE..MAX_SIZE, rounded
+  // to two significant digits.
+  private static int sizeFor(int sliderValue) {
+    double exact = MIN_SIZE * Math.pow((double) MAX_SIZE / MIN_SIZE, sliderValue / (double) SIZE_STEPS);
+    double scale = Math.pow(10, Math.floor(Math.log10(exact)) - 1);
+    return (int) (Math.round(exact / scale) * scale);
+  }
+
+  public double getOpsPerSecond() {
+    return opsPerSecond;
+  }
+
+  // Slider positions map logarithmically onto 1 to 10^6 operations per
+  // second; the last position removes pacing entirely.
+  private static double opsPerSecondFor(int sliderValue) {
+    if (sliderValue >= MAX_SPEED) {
+      return Pacer.UNLIMITED;
     }
+    return Math.pow(10, (sliderValue - 1) * 6.0 / (MAX_SPEED - 2));
   }
 }
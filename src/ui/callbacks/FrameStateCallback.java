@@ -0,0 +1,157 @@
+package ui.callbacks;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import model.Phase;
+import model.RunMetrics;
+import ui.components.BarPanel;
+import util.DirtyIndexSet;
+
+// Worker threads only store the latest highlight state here and count
+// operations in the run's metrics; the frame tick copies it to the panel
+// once per frame, so the EDT sees a fixed update rate however many
+// operations the sort performs.
+public class FrameStateCallback implements VisualizationCallback {
+  private static final long NONE = pack(-1, -1);
+
+  private final RunMetrics metrics;
+  private final Runnable stepDelay;
+  private final AtomicLongArray fronts = new AtomicLongArray(BarPanel.MAX_FRONTS);
+  private final DirtyIndexSet changedIndexes;
+  private volatile boolean fullRefresh = true;
+  private volatile long highlights = NONE;
+  private volatile boolean frontsActive = false;
+  private volatile int[] runBoundaries = new int[0];
+  private volatile boolean dirty = true;
+
+  public FrameStateCallback(int arrayLength, RunMetrics metrics, Runnable stepDelay) {
+    this.changedIndexes = new DirtyIndexSet(arrayLength);
+    this.metrics = metrics;
+    this.stepDelay = stepDelay;
+    for (int k = 0; k < BarPanel.MAX_FRONTS; k++) {
+      fronts.set(k, NONE);
+    }
+  }
+
+  @Override
+  public void onHighlight(int i, int j) {
+    highlights = pack(i, j);
+    dirty = true;
+  }
+
+  @Override
+  public void onHighlightFront(int front, int i, int j) {
+    fronts.set(front % BarPanel.MAX_FRONTS, pack(i, j));
+    frontsActive = true;
+    dirty = true;
+  }
+
+  @Override
+  public void onRunBoundaries(int[] starts) {
+    runBoundaries = starts;
+    dirty = true;
+  }
+
+  @Override
+  public void onClearHighlights() {
+    highlights = NONE;
+    if (frontsActive) {
+      for (int k = 0; k < BarPanel.MAX_FRONTS; k++) {
+        fronts.set(k, NONE);
+      }
+      frontsActive = false;
+    }
+    runBoundaries = new int[0];
+    dirty = true;
+  }
+
+  @Override
+  public void onArrayChanged(int i, int j) {
+    changedIndexes.mark(i);
+    if (j >= 0) {
+      changedIndexes.mark(j);
+    }
+    dirty = true;
+  }
+
+  @Override
+  public void onRepaint() {
+    fullRefresh = true;
+    dirty = true;
+  }
+
+  @Override
+  public void onIncrementComparisons() {
+    metrics.incrementCompares();
+  }
+
+  @Override
+  public void onIncrementSwaps() {
+    metrics.incrementSwaps();
+  }
+
+  @Override
+  public void onIncrementReads() {
+    metrics.incrementReads();
+  }
+
+  @Override
+  public void onIncrementWrites() {
+    metrics.incrementWrites();
+  }
+
+  @Override
+  public void onPhaseTime(Phase phase, long nanos) {
+    metrics.addPhaseNanos(phase, nanos);
+  }
+
+  @Override
+  public void onWorkerCpuTime(long nanos) {
+    metrics.addCpuNanos(nanos);
+  }
+
+  @Override
+  public void onStepDelay() {
+    stepDelay.run();
+  }
+
+  // Must run on the EDT.
+  public void publishTo(BarPanel panel) {
+    panel.setMetrics(metrics.snapshot());
+    if (!dirty) {
+      return;
+    }
+    dirty = false;
+
+    if (fullRefresh) {
+      fullRefresh = false;
+      changedIndexes.clear();
+      panel.invalidateAll();
+    } else {
+      changedIndexes.drain(panel::invalidateIndex);
+    }
+
+    // The panel diffs these against what it last drew and repaints only the
+    // columns that changed.
+    long h = highlights;
+    panel.setHighlights(first(h), second(h));
+    for (int k = 0; k < BarPanel.MAX_FRONTS; k++) {
+      long f = fronts.get(k);
+      panel.setFront(k, first(f), second(f));
+    }
+    panel.setRunBoundaries(runBoundaries);
+    panel.repaintDamaged();
+  }
+
+  private static long pack(int i, int j) {
+    return ((long) i << 32) | (j & 0xFFFFFFFFL);
+  }
+
+  private static int first(long packed) {
+    return (int) (packed >> 32);
+  }
+
+  private static int second(long packed) {
+    return (int) packed;
+  }
+}
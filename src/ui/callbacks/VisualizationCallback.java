@@ -1,15 +1,34 @@
 package ui.callbacks;
 
+import model.Phase;
+
 public interface VisualizationCallback {
   void onHighlight(int i, int j);
 
+  void onHighlightFront(int front, int i, int j);
+
+  void onRunBoundaries(int[] starts);
+
   void onClearHighlights();
 
+  // Elements i and j (j may be -1) were written.
+  void onArrayChanged(int i, int j);
+
+  // The whole array may have changed.
   void onRepaint();
 
   void onIncrementComparisons();
 
   void onIncrementSwaps();
 
+  void onIncrementReads();
+
+  void onIncrementWrites();
+
+  void onPhaseTime(Phase phase, long nanos);
+
+  // CPU time a fork/join worker spent on the run.
+  void onWorkerCpuTime(long nanos);
+
   void onStepDelay();
 }
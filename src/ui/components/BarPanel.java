@@ -8,36 +8,87 @@ import java.awt.GradientPaint;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import constants.UIConstants;
+import model.RunMetrics;
 import util.TimeFormatter;
 
 public class BarPanel extends JPanel {
+  public static final int MAX_FRONTS = 16;
+
+  // Paint-time colors and fonts are shared so repaints allocate nothing.
+  private static final Color GLOSS = new Color(255, 255, 255, 35);
+  private static final Color OVERLAY_BG = new Color(30, 41, 59, 230);
+  private static final Color OVERLAY_BORDER = new Color(71, 85, 105, 100);
+  private static final Color TEXT_TITLE = new Color(248, 250, 252);
+  private static final Color TEXT_STATS = new Color(203, 213, 225);
+  private static final Color TEXT_MUTED = new Color(148, 163, 184);
+  private static final Color STATUS_DONE = new Color(16, 185, 129);
+  private static final Color STATUS_RUNNING = new Color(251, 191, 36);
+  private static final Color STATUS_IDLE = new Color(100, 116, 139);
+  private static final Font FONT_MESSAGE = new Font("Inter", Font.PLAIN, 16);
+  private static final Font FONT_PANEL_TITLE = new Font("Inter", Font.BOLD, 14);
+  private static final Font FONT_LEGEND = new Font("Inter", Font.PLAIN, 12);
+  private static final int LEGEND_WIDTH = 245;
+  private static final int LEGEND_HEIGHT = 100;
+  // The legend never changes, so every panel blits the same prerendered image.
+  private static BufferedImage legendLayer;
+  // -Dvisualizer.renderer=vector selects the Java2D shape renderer instead
+  // of the raster backbuffer.
+  private static final boolean RASTER_RENDERING =
+      !"vector".equals(System.getProperty("visualizer.renderer"));
+
   private int[] values = new int[0];
   private int maxVal = 1;
   private volatile int highlightA = -1;
   private volatile int highlightB = -1;
+  private final int[] fronts = new int[MAX_FRONTS * 2];
+  private boolean frontsActive = false;
+  private int[] runBoundaries = new int[0];
   private volatile boolean sorting = false;
   private volatile boolean sorted = false;
-  private int speed = 60;
+  private String speed = "";
   private String algorithmName = "Bubble Sort";
-  private volatile long comparisons = 0;
-  private volatile long swaps = 0;
-  private volatile long elapsedSeconds = 0;
+  private RunMetrics.Snapshot metrics = RunMetrics.Snapshot.EMPTY;
   private boolean isComparisonMode = false;
   private String panelLabel = "";
 
+  // Level-of-detail state used when there are more elements than pixel
+  // columns: each column caches the min and max of its bucket and is only
+  // rescanned after one of its indexes changes.
+  private int lodColumns = 0;
+  private int[] columnMin = new int[0];
+  private int[] columnMax = new int[0];
+  private boolean[] columnDirty = new boolean[0];
+  private boolean allColumnsDirty = true;
+  private byte[] columnMark = new byte[0];
+  private final RasterBackbuffer backbuffer = new RasterBackbuffer();
+
+  // Pixel columns changed since the last paint. Setters only mark damage and
+  // repaintDamaged() asks Swing for just those columns; frameValid drops to
+  // false when the whole panel has to be redrawn.
+  private final BitSet damage = new BitSet();
+  private boolean frameValid = false;
+  private final List<Runnable> firstPaintActions = new ArrayList<>();
+
   public BarPanel() {
     setBackground(UIConstants.VIZ_BG_COLOR);
     setDoubleBuffered(true);
+    Arrays.fill(fronts, -1);
   }
 
   public void setComparisonMode(boolean mode, String label) {
     this.isComparisonMode = mode;
     this.panelLabel = label;
+    frameValid = false;
   }
 
   public void setValues(int[] v) {
@@ -45,6 +96,7 @@ public class BarPanel extends JPanel {
     this.maxVal = Math.max(1, Arrays.stream(values).max().orElse(1));
     this.sorted = false;
     this.sorting = false;
+    invalidateAll();
     clearHighlights();
     resetStats();
     repaint();
@@ -54,72 +106,165 @@ public class BarPanel extends JPanel {
     return values;
   }
 
-  public void attachLiveArray(int[] live, int speed) {
+  public void attachLiveArray(int[] live, String speed) {
     this.values = live;
     this.maxVal = Math.max(1, Arrays.stream(values).max().orElse(1));
     this.speed = speed;
+    invalidateAll();
     this.sorted = false;
     this.sorting = true;
     resetStats();
+    setToolTipText(null);
     repaint();
   }
 
   public void setSortingState(boolean sorting) {
     this.sorting = sorting;
-    repaint();
+    repaintStats();
   }
 
   public void setSortedState() {
     this.sorted = true;
     this.sorting = false;
+    frameValid = false;
     repaint();
   }
 
+  // Highlight, front and run boundary setters only mark the columns that
+  // changed; the caller follows up with repaintDamaged().
   public void setHighlights(int a, int b) {
-    this.highlightA = a;
-    this.highlightB = b;
-    repaint();
+    if (a != highlightA || b != highlightB) {
+      damageIndex(highlightA);
+      damageIndex(highlightB);
+      damageIndex(a);
+      damageIndex(b);
+      this.highlightA = a;
+      this.highlightB = b;
+    }
+  }
+
+  public void setFront(int front, int a, int b) {
+    int slot = (front % MAX_FRONTS) * 2;
+    if (fronts[slot] == a && fronts[slot + 1] == b)
+      return;
+    damageIndex(fronts[slot]);
+    damageIndex(fronts[slot + 1]);
+    damageIndex(a);
+    damageIndex(b);
+    fronts[slot] = a;
+    fronts[slot + 1] = b;
+    if (a >= 0 || b >= 0) {
+      frontsActive = true;
+    }
+  }
+
+  public void setRunBoundaries(int[] starts) {
+    if (starts == runBoundaries)
+      return;
+    damageBoundaries(runBoundaries);
+    damageBoundaries(starts);
+    this.runBoundaries = starts;
   }
 
   public void clearHighlights() {
-    this.highlightA = -1;
-    this.highlightB = -1;
-    repaint();
+    setHighlights(-1, -1);
+    for (int k = 0; k < MAX_FRONTS; k++) {
+      setFront(k, -1, -1);
+    }
+    frontsActive = false;
+    setRunBoundaries(new int[0]);
+  }
+
+  // Called on the EDT for every index written since the last frame.
+  public void invalidateIndex(int index) {
+    if (lodColumns > 0 && index < values.length) {
+      columnDirty[columnOf(index, lodColumns)] = true;
+    }
+    damageIndex(index);
+  }
+
+  public void invalidateAll() {
+    allColumnsDirty = true;
+    frameValid = false;
+  }
+
+  // Requests a repaint of only the damaged columns, from the top of the
+  // panel down to the baseline, or of everything after invalidateAll().
+  public void repaintDamaged() {
+    if (!frameValid) {
+      repaint();
+      return;
+    }
+    int bottom = getHeight() - (isComparisonMode ? 15 : 20);
+    int x0 = damage.nextSetBit(0);
+    while (x0 >= 0) {
+      int x1 = damage.nextClearBit(x0);
+      repaint(x0, 0, x1 - x0, bottom);
+      x0 = damage.nextSetBit(x1);
+    }
   }
 
   public void setAlgorithmName(String name) {
     this.algorithmName = name;
-    repaint();
+    repaintStats();
   }
 
-  public void incrementComparisons() {
-    this.comparisons++;
+  public void setMetrics(RunMetrics.Snapshot snapshot) {
+    RunMetrics.Snapshot previous = metrics;
+    this.metrics = snapshot;
+    if (!snapshot.equals(previous)) {
+      repaintStats();
+    }
   }
 
-  public void incrementSwaps() {
-    this.swaps++;
+  private void repaintStats() {
+    if (isComparisonMode) {
+      repaint(10, getHeight() - 60, getWidth() - 19, 51);
+    } else {
+      repaint(15, 15, 381, 131);
+    }
   }
 
-  public void setElapsedTime(long seconds) {
-    this.elapsedSeconds = seconds;
+  private void damageIndex(int index) {
+    int n = values.length;
+    int w = getWidth();
+    if (!frameValid || index < 0 || index >= n || w <= 0)
+      return;
+    if (n > w) {
+      damage.set(columnOf(index, w));
+      return;
+    }
+    double barW = (double) w / n;
+    int x = (int) Math.floor(index * barW);
+    int barWidth = (int) Math.ceil(barW) - (n > 100 ? 0 : 1);
+    damage.set(x, Math.min(w, x + Math.max(1, barWidth)));
   }
 
-  public void resetStats() {
-    this.comparisons = 0;
-    this.swaps = 0;
-    this.elapsedSeconds = 0;
+  private void damageBoundaries(int[] starts) {
+    int n = values.length;
+    int w = getWidth();
+    if (!frameValid || sorted || w <= 0)
+      return;
+    for (int start : starts) {
+      if (start > 0 && start < n) {
+        int x = n > w ? columnOf(start, w) : (int) Math.floor(start * ((double) w / n));
+        damage.set(Math.max(0, x - 1), Math.min(w, x + 1));
+      }
+    }
   }
 
-  public long getComparisons() {
-    return comparisons;
+  public void resetStats() {
+    this.metrics = RunMetrics.Snapshot.EMPTY;
   }
 
-  public long getSwaps() {
-    return swaps;
+  public RunMetrics.Snapshot getMetrics() {
+    return metrics;
   }
 
-  public long getElapsedSeconds() {
-    return elapsedSeconds;
+  // Runs action on the EDT right after the panel first paints, for work that
+  // should not delay the first frame.
+  public void whenFirstPainted(Runnable action) {
+    firstPaintActions.add(action);
   }
 
   @Override
@@ -132,23 +277,36 @@ public class BarPanel extends JPanel {
 
   @Override
   protected void paintComponent(Graphics g0) {
-    super.paintComponent(g0);
     Graphics2D g = (Graphics2D) g0;
-    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-    g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-    g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-
     int w = getWidth();
     int h = getHeight();
-    drawGrid(g, w, h);
+    boolean empty = values == null || values.length == 0;
+    if (!firstPaintActions.isEmpty()) {
+      firstPaintActions.forEach(SwingUtilities::invokeLater);
+      firstPaintActions.clear();
+    }
+
+    if (RASTER_RENDERING) {
+      paintRaster(g, w, h, empty);
+    } else {
+      super.paintComponent(g0);
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      g.drawImage(backbuffer.gridLayer(w, h), 0, 0, null);
+      if (!empty) {
+        drawBars(g, w, h);
+      }
+      damage.clear();
+      frameValid = true;
+    }
 
-    if (values == null || values.length == 0) {
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    if (empty) {
       drawEmptyMessage(g, w, h);
       return;
     }
 
-    drawBars(g, w, h);
-
     if (isComparisonMode) {
       drawComparisonInfo(g, values.length, w, h);
     } else {
@@ -156,20 +314,105 @@ public class BarPanel extends JPanel {
     }
   }
 
-  private void drawGrid(Graphics2D g, int w, int h) {
-    g.setColor(UIConstants.GRID_COLOR);
-    int gridSpacing = 50;
-    for (int y = 0; y < h; y += gridSpacing) {
-      g.drawLine(0, y, w, y);
+  // Full frames redraw everything; otherwise only the damaged columns are
+  // restored from the grid layer and redrawn, and Swing's clip limits the
+  // blit to the regions repaintDamaged() asked for.
+  private void paintRaster(Graphics2D g, int w, int h, boolean empty) {
+    boolean full = !frameValid || !backbuffer.matches(w, h);
+    if (full) {
+      backbuffer.begin(w, h);
+    }
+    if (!empty) {
+      boolean lod = values.length > w;
+      if (lod) {
+        updateColumns(w);
+        markHighlightedColumns(w);
+      } else {
+        lodColumns = 0;
+      }
+      int x0 = full ? 0 : damage.nextSetBit(0);
+      while (x0 >= 0 && x0 < w) {
+        int x1 = full ? w : Math.min(w, damage.nextClearBit(x0));
+        if (!full) {
+          backbuffer.restore(x0, x1);
+        }
+        if (lod) {
+          rasterColumns(w, h, x0, x1);
+        } else {
+          rasterBars(w, h, x0, x1);
+        }
+        x0 = full ? -1 : damage.nextSetBit(x1);
+      }
+    }
+    damage.clear();
+    frameValid = true;
+    g.drawImage(backbuffer.getImage(), 0, 0, null);
+  }
+
+  // Draws every bar overlapping pixel columns [x0, x1), in index order so
+  // overlaps resolve the same way as in a full frame.
+  private void rasterBars(int w, int h, int x0, int x1) {
+    int n = values.length;
+    double barW = Math.max(1, (double) w / n);
+    int gap = n > 100 ? 0 : 1;
+    int bottomMargin = isComparisonMode ? 70 : 80;
+    int baseline = h - (isComparisonMode ? 15 : 20);
+    int barWidth = (int) Math.ceil(barW) - gap;
+    int first = Math.max(0, (int) (x0 / barW) - 2);
+    int last = Math.min(n, (int) ((x1 + 1) / barW) + 1);
+
+    for (int i = first; i < last; i++) {
+      int barHeight = (int) Math.max(3, values[i] / (double) maxVal * (h - bottomMargin));
+      int x = (int) Math.floor(i * barW);
+      backbuffer.fillBar(x, barWidth, baseline - barHeight, baseline, paletteOf(i));
+    }
+
+    if (runBoundaries.length > 0 && !sorted) {
+      for (int start : runBoundaries) {
+        if (start > 0 && start < n) {
+          backbuffer.fillRunBoundary((int) Math.floor(start * barW), baseline);
+        }
+      }
+    }
+  }
+
+  private void rasterColumns(int w, int h, int x0, int x1) {
+    int n = values.length;
+    int baseline = h - (isComparisonMode ? 15 : 20);
+    int maxHeight = h - (isComparisonMode ? 70 : 80);
+    for (int x = x0; x < x1; x++) {
+      int minHeight = (int) Math.max(3, columnMin[x] / (double) maxVal * maxHeight);
+      int maxBarHeight = (int) Math.max(3, columnMax[x] / (double) maxVal * maxHeight);
+      int palette = sorted ? RasterBackbuffer.SORTED
+          : columnMark[x] == 1 ? RasterBackbuffer.HIGHLIGHT_A
+          : columnMark[x] == 2 ? RasterBackbuffer.HIGHLIGHT_B
+          : RasterBackbuffer.BAR;
+      backbuffer.fillColumn(x, baseline, minHeight, maxBarHeight, palette);
     }
-    for (int x = 0; x < w; x += gridSpacing) {
-      g.drawLine(x, 0, x, h);
+
+    if (runBoundaries.length > 0 && !sorted) {
+      for (int start : runBoundaries) {
+        if (start > 0 && start < n) {
+          backbuffer.fillRunBoundary(columnOf(start, w), baseline);
+        }
+      }
+    }
+  }
+
+  private int paletteOf(int index) {
+    if (sorted) {
+      return RasterBackbuffer.SORTED;
+    } else if (index == highlightA || isFront(index, 0)) {
+      return RasterBackbuffer.HIGHLIGHT_A;
+    } else if (index == highlightB || isFront(index, 1)) {
+      return RasterBackbuffer.HIGHLIGHT_B;
     }
+    return RasterBackbuffer.BAR;
   }
 
   private void drawEmptyMessage(Graphics2D g, int w, int h) {
-    g.setColor(new Color(148, 163, 184));
-    g.setFont(new Font("Inter", Font.PLAIN, 16));
+    g.setColor(TEXT_MUTED);
+    g.setFont(FONT_MESSAGE);
     String msg = isComparisonMode ? "Ready to compare" : "Ready to start";
     FontMetrics fm = g.getFontMetrics();
     int msgW = fm.stringWidth(msg);
@@ -178,6 +421,11 @@ public class BarPanel extends JPanel {
 
   private void drawBars(Graphics2D g, int w, int h) {
     int n = values.length;
+    if (n > w) {
+      drawColumns(g, w, h);
+      return;
+    }
+    lodColumns = 0;
     double barW = Math.max(1, (double) w / n);
     int gap = n > 100 ? 0 : 1;
     int bottomMargin = isComparisonMode ? 70 : 80;
@@ -202,7 +450,7 @@ public class BarPanel extends JPanel {
       }
 
       if (barHeight > 10) {
-        g.setColor(new Color(255, 255, 255, 35));
+        g.setColor(GLOSS);
         if (barWidth > 3) {
           g.fillRoundRect(x, y, barWidth, Math.min(barHeight / 3, 20), 4, 4);
         } else {
@@ -210,14 +458,133 @@ public class BarPanel extends JPanel {
         }
       }
     }
+
+    if (runBoundaries.length > 0 && !sorted) {
+      g.setColor(UIConstants.RUN_BOUNDARY);
+      for (int start : runBoundaries) {
+        if (start > 0 && start < n) {
+          int x = (int) Math.floor(start * barW);
+          g.fillRect(x - 1, 0, 2, h - (isComparisonMode ? 15 : 20));
+        }
+      }
+    }
+  }
+
+  // Paint cost here depends on the panel width only: one min/max column per
+  // pixel, rescanning just the buckets whose indexes changed.
+  private void drawColumns(Graphics2D g, int w, int h) {
+    int n = values.length;
+    updateColumns(w);
+    markHighlightedColumns(w);
+
+    int bottomMargin = isComparisonMode ? 70 : 80;
+    int baseline = h - (isComparisonMode ? 15 : 20);
+    int maxHeight = h - bottomMargin;
+    // Columns are pixel aligned, so antialiasing only costs time here.
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+    for (int x = 0; x < w; x++) {
+      int minHeight = (int) Math.max(3, columnMin[x] / (double) maxVal * maxHeight);
+      int maxBarHeight = (int) Math.max(3, columnMax[x] / (double) maxVal * maxHeight);
+      int mark = columnMark[x];
+
+      g.setColor(columnColor(mark, true));
+      g.fillRect(x, baseline - minHeight, 1, minHeight);
+      if (maxBarHeight > minHeight) {
+        g.setColor(columnColor(mark, false));
+        g.fillRect(x, baseline - maxBarHeight, 1, maxBarHeight - minHeight);
+      }
+    }
+
+    if (runBoundaries.length > 0 && !sorted) {
+      g.setColor(UIConstants.RUN_BOUNDARY);
+      for (int start : runBoundaries) {
+        if (start > 0 && start < n) {
+          g.fillRect(columnOf(start, w) - 1, 0, 2, baseline);
+        }
+      }
+    }
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+  }
+
+  private void updateColumns(int w) {
+    int n = values.length;
+    if (lodColumns != w) {
+      lodColumns = w;
+      columnMin = new int[w];
+      columnMax = new int[w];
+      columnDirty = new boolean[w];
+      columnMark = new byte[w];
+      allColumnsDirty = true;
+    }
+    for (int x = 0; x < w; x++) {
+      if (!allColumnsDirty && !columnDirty[x])
+        continue;
+      int min = Integer.MAX_VALUE;
+      int max = Integer.MIN_VALUE;
+      int end = columnStart(x + 1, n, w);
+      for (int i = columnStart(x, n, w); i < end; i++) {
+        int v = values[i];
+        if (v < min)
+          min = v;
+        if (v > max)
+          max = v;
+      }
+      columnMin[x] = min;
+      columnMax[x] = max;
+      columnDirty[x] = false;
+    }
+    allColumnsDirty = false;
+  }
+
+  // 1 marks a column holding highlight A or a front's first index, 2 one
+  // holding highlight B or a front's second index.
+  private void markHighlightedColumns(int w) {
+    Arrays.fill(columnMark, (byte) 0);
+    if (sorted)
+      return;
+    markColumn(highlightB, 2, w);
+    markColumn(highlightA, 1, w);
+    if (frontsActive) {
+      for (int k = 0; k < fronts.length; k++) {
+        markColumn(fronts[k], (k & 1) == 0 ? 1 : 2, w);
+      }
+    }
+  }
+
+  private void markColumn(int index, int mark, int w) {
+    if (index >= 0 && index < values.length) {
+      int x = columnOf(index, w);
+      if (columnMark[x] != 1) {
+        columnMark[x] = (byte) mark;
+      }
+    }
+  }
+
+  private Color columnColor(int mark, boolean lower) {
+    if (sorted) {
+      return lower ? UIConstants.SORTED_START : UIConstants.SORTED_END;
+    } else if (mark == 1) {
+      return lower ? UIConstants.HIGHLIGHT_A_START : UIConstants.HIGHLIGHT_A_END;
+    } else if (mark == 2) {
+      return lower ? UIConstants.HIGHLIGHT_B_START : UIConstants.HIGHLIGHT_B_END;
+    }
+    return lower ? UIConstants.BAR_START : UIConstants.BAR_END;
+  }
+
+  private int columnOf(int index, int columns) {
+    return (int) ((long) index * columns / values.length);
+  }
+
+  private static int columnStart(int column, int n, int columns) {
+    return (int) (((long) column * n + columns - 1) / columns);
   }
 
   private Color getBarStartColor(int index) {
     if (sorted) {
       return UIConstants.SORTED_START;
-    } else if (index == highlightA) {
+    } else if (index == highlightA || isFront(index, 0)) {
       return UIConstants.HIGHLIGHT_A_START;
-    } else if (index == highlightB) {
+    } else if (index == highlightB || isFront(index, 1)) {
       return UIConstants.HIGHLIGHT_B_START;
     } else {
       return UIConstants.BAR_START;
@@ -227,108 +594,138 @@ public class BarPanel extends JPanel {
   private Color getBarEndColor(int index) {
     if (sorted) {
       return UIConstants.SORTED_END;
-    } else if (index == highlightA) {
+    } else if (index == highlightA || isFront(index, 0)) {
       return UIConstants.HIGHLIGHT_A_END;
-    } else if (index == highlightB) {
+    } else if (index == highlightB || isFront(index, 1)) {
       return UIConstants.HIGHLIGHT_B_END;
     } else {
       return UIConstants.BAR_END;
     }
   }
 
+  private boolean isFront(int index, int side) {
+    if (!frontsActive)
+      return false;
+    for (int k = side; k < fronts.length; k += 2) {
+      if (fronts[k] == index) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private void drawComparisonInfo(Graphics2D g, int n, int w, int h) {
-    g.setColor(new Color(30, 41, 59, 230));
+    g.setColor(OVERLAY_BG);
     g.fillRoundRect(10, h - 60, w - 20, 50, 10, 10);
-    g.setColor(new Color(71, 85, 105, 100));
+    g.setColor(OVERLAY_BORDER);
     g.drawRoundRect(10, h - 60, w - 20, 50, 10, 10);
 
-    g.setFont(new Font("Inter", Font.BOLD, 14));
+    g.setFont(FONT_PANEL_TITLE);
     if (sorted) {
-      g.setColor(new Color(16, 185, 129));
+      g.setColor(STATUS_DONE);
       g.drawString("✓ " + algorithmName, 20, h - 38);
     } else if (sorting) {
-      g.setColor(new Color(251, 191, 36));
+      g.setColor(STATUS_RUNNING);
       g.drawString("● " + algorithmName, 20, h - 38);
     } else {
-      g.setColor(new Color(148, 163, 184));
+      g.setColor(TEXT_MUTED);
       g.drawString("○ " + algorithmName, 20, h - 38);
     }
 
-    g.setFont(new Font("Inter", Font.PLAIN, 11));
-    g.setColor(new Color(203, 213, 225));
-    String stats = String.format("C: %d | S: %d | T: %s", comparisons, swaps,
-        TimeFormatter.formatTime(elapsedSeconds));
+    g.setFont(UIConstants.FONT_SMALL);
+    g.setColor(TEXT_STATS);
+    RunMetrics.Snapshot m = metrics;
+    String stats = String.format("C: %d | S: %d | R: %d | W: %d | T: %s", m.compares(), m.swaps(),
+        m.reads(), m.writes(), TimeFormatter.formatNanos(m.nanos()));
     g.drawString(stats, 20, h - 20);
   }
 
   private void drawInfoOverlay(Graphics2D g, int n, int w, int h) {
-    g.setColor(new Color(30, 41, 59, 230));
-    g.fillRoundRect(15, 15, 380, 110, 12, 12);
-    g.setColor(new Color(71, 85, 105, 100));
-    g.drawRoundRect(15, 15, 380, 110, 12, 12);
+    g.setColor(OVERLAY_BG);
+    g.fillRoundRect(15, 15, 380, 130, 12, 12);
+    g.setColor(OVERLAY_BORDER);
+    g.drawRoundRect(15, 15, 380, 130, 12, 12);
 
-    g.setColor(new Color(248, 250, 252));
-    g.setFont(new Font("Inter", Font.BOLD, 17));
+    g.setColor(TEXT_TITLE);
+    g.setFont(UIConstants.FONT_LARGE);
     g.drawString(algorithmName, 30, 42);
 
-    g.setFont(new Font("Inter", Font.PLAIN, 13));
-    g.setColor(new Color(203, 213, 225));
+    g.setFont(UIConstants.FONT_REGULAR);
+    g.setColor(TEXT_STATS);
 
     int statY = 67;
     int lineHeight = 20;
     g.drawString("Elements: " + n, 30, statY);
     g.drawString("Speed: " + speed, 180, statY);
-    g.drawString("Comparisons: " + comparisons, 30, statY + lineHeight);
-    g.drawString("Swaps: " + swaps, 180, statY + lineHeight);
-    g.drawString("Time: " + TimeFormatter.formatTime(elapsedSeconds), 30, statY + lineHeight * 2);
-
-    drawStatusIndicator(g, 290, statY + lineHeight * 2 - 12);
+    RunMetrics.Snapshot m = metrics;
+    g.drawString("Comparisons: " + m.compares(), 30, statY + lineHeight);
+    g.drawString("Swaps: " + m.swaps(), 180, statY + lineHeight);
+    g.drawString("Reads: " + m.reads(), 30, statY + lineHeight * 2);
+    g.drawString("Writes: " + m.writes(), 180, statY + lineHeight * 2);
+    g.drawString("Time: " + TimeFormatter.formatNanos(m.nanos()), 30, statY + lineHeight * 3);
+
+    drawStatusIndicator(g, 290, statY + lineHeight * 3 - 12);
     drawLegend(g, w, h);
   }
 
   private void drawStatusIndicator(Graphics2D g, int x, int y) {
     if (sorted) {
-      g.setColor(new Color(16, 185, 129));
+      g.setColor(STATUS_DONE);
       g.fillOval(x, y, 12, 12);
-      g.setFont(new Font("Inter", Font.BOLD, 13));
+      g.setFont(UIConstants.FONT_BOLD);
       g.drawString("✓ Sorted", x + 18, y + 10);
     } else if (sorting) {
-      g.setColor(new Color(251, 191, 36));
+      g.setColor(STATUS_RUNNING);
       g.fillOval(x, y, 12, 12);
-      g.setFont(new Font("Inter", Font.BOLD, 13));
+      g.setFont(UIConstants.FONT_BOLD);
       g.drawString("● Sorting", x + 18, y + 10);
     } else {
-      g.setColor(new Color(100, 116, 139));
+      g.setColor(STATUS_IDLE);
       g.fillOval(x, y, 12, 12);
-      g.setColor(new Color(148, 163, 184));
-      g.setFont(new Font("Inter", Font.BOLD, 13));
+      g.setColor(TEXT_MUTED);
+      g.setFont(UIConstants.FONT_BOLD);
       g.drawString("○ Ready", x + 18, y + 10);
     }
   }
 
   private void drawLegend(Graphics2D g, int w, int h) {
-    int legendX = w - 260;
-    int legendY = h - 115;
-    g.setColor(new Color(30, 41, 59, 230));
-    g.fillRoundRect(legendX, legendY, 245, 100, 12, 12);
-    g.setColor(new Color(71, 85, 105, 100));
-    g.drawRoundRect(legendX, legendY, 245, 100, 12, 12);
-
-    g.setFont(new Font("Inter", Font.BOLD, 13));
-    g.setColor(new Color(248, 250, 252));
+    if (legendLayer == null) {
+      legendLayer = buildLegendLayer();
+    }
+    g.drawImage(legendLayer, w - 260, h - 115, null);
+  }
+
+  private static BufferedImage buildLegendLayer() {
+    BufferedImage layer = new BufferedImage(LEGEND_WIDTH + 1, LEGEND_HEIGHT + 1,
+        BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = layer.createGraphics();
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    int legendX = 0;
+    int legendY = 0;
+    g.setColor(OVERLAY_BG);
+    g.fillRoundRect(legendX, legendY, LEGEND_WIDTH, LEGEND_HEIGHT, 12, 12);
+    g.setColor(OVERLAY_BORDER);
+    g.drawRoundRect(legendX, legendY, LEGEND_WIDTH, LEGEND_HEIGHT, 12, 12);
+
+    g.setFont(UIConstants.FONT_BOLD);
+    g.setColor(TEXT_TITLE);
     g.drawString("Legend", legendX + 15, legendY + 25);
 
-    g.setFont(new Font("Inter", Font.PLAIN, 12));
+    g.setFont(FONT_LEGEND);
     drawLegendItem(g, legendX + 20, legendY + 45, UIConstants.BAR_START, "Unsorted");
     drawLegendItem(g, legendX + 20, legendY + 65, UIConstants.HIGHLIGHT_A_START, "Comparing A");
     drawLegendItem(g, legendX + 20, legendY + 85, UIConstants.HIGHLIGHT_B_START, "Comparing B");
     drawLegendItem(g, legendX + 140, legendY + 45, UIConstants.SORTED_START, "Sorted");
+    drawLegendItem(g, legendX + 140, legendY + 65, UIConstants.RUN_BOUNDARY, "Run edge");
+    g.dispose();
+    return layer;
   }
 
-  private void drawLegendItem(Graphics2D g, int x, int y, Color color, String text) {
+  private static void drawLegendItem(Graphics2D g, int x, int y, Color color, String text) {
     g.setColor(color);
     g.fillRoundRect(x, y - 9, 14, 14, 4, 4);
-    g.setColor(new Color(203, 213, 225));
+    g.setColor(TEXT_STATS);
     g.drawString(text, x + 20, y + 2);
   }
 }
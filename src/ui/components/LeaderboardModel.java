@@ -0,0 +1,68 @@
+package ui.components;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.swing.table.AbstractTableModel;
+
+import model.RunMetrics;
+import model.RunResult;
+import util.TimeFormatter;
+
+// Race results ranked by wall time; rows are added as runs finish.
+public class LeaderboardModel extends AbstractTableModel {
+  private static final long serialVersionUID = 1L;
+  private static final String[] COLUMNS = {
+      "#", "Algorithm", "Wall", "CPU", "Comparisons", "Swaps", "Reads", "Writes"
+  };
+
+  private final List<RunResult> results = new ArrayList<>();
+
+  public void add(RunResult result) {
+    results.add(result);
+    results.sort(Comparator.comparingLong(RunResult::wallNanos));
+    fireTableDataChanged();
+  }
+
+  public void clear() {
+    results.clear();
+    fireTableDataChanged();
+  }
+
+  public List<RunResult> getResults() {
+    return results;
+  }
+
+  @Override
+  public int getRowCount() {
+    return results.size();
+  }
+
+  @Override
+  public int getColumnCount() {
+    return COLUMNS.length;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return COLUMNS[column];
+  }
+
+  @Override
+  public Object getValueAt(int row, int column) {
+    RunResult result = results.get(row);
+    RunMetrics.Snapshot m = result.operations();
+    return switch (column) {
+      case 0 -> row + 1;
+      case 1 -> result.algorithm();
+      case 2 -> TimeFormatter.formatNanos(result.wallNanos());
+      case 3 -> result.cpuNanos() < 0 ? "n/a" : TimeFormatter.formatNanos(result.cpuNanos());
+      case 4 -> m.compares();
+      case 5 -> m.swaps();
+      case 6 -> m.reads();
+      case 7 -> m.writes();
+      default -> throw new IllegalArgumentException("No column " + column);
+    };
+  }
+}
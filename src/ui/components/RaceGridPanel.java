@@ -0,0 +1,69 @@
+package ui.components;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.GridLayout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.JPanel;
+import javax.swing.border.EmptyBorder;
+
+import constants.UIConstants;
+
+// Grid of lanes for race mode, one compact BarPanel per algorithm. Lanes
+// never repaint on their own while racing: the controller's frame timer
+// publishes all of them in one EDT event and each repaints only its damaged
+// columns.
+public class RaceGridPanel extends JPanel {
+  private static final long serialVersionUID = 1L;
+
+  private final List<BarPanel> lanes = new ArrayList<>();
+
+  public RaceGridPanel() {
+    setBackground(UIConstants.BG_COLOR);
+  }
+
+  public void setAlgorithms(List<String> names) {
+    removeAll();
+    lanes.clear();
+    int columns = Math.max(1, (int) Math.ceil(Math.sqrt(names.size())));
+    int rows = Math.max(1, (names.size() + columns - 1) / columns);
+    setLayout(new GridLayout(rows, columns, 10, 10));
+    for (String name : names) {
+      BarPanel lane = new BarPanel();
+      lane.setComparisonMode(true, name);
+      lane.setAlgorithmName(name);
+      lanes.add(lane);
+
+      JPanel card = new JPanel(new BorderLayout());
+      card.setBackground(UIConstants.PANEL_BG);
+      card.setBorder(BorderFactory.createCompoundBorder(
+          BorderFactory.createLineBorder(UIConstants.BORDER_COLOR, 1),
+          new EmptyBorder(2, 2, 2, 2)));
+      card.add(lane, BorderLayout.CENTER);
+      add(card);
+    }
+    revalidate();
+    repaint();
+  }
+
+  public List<BarPanel> getLanes() {
+    return lanes;
+  }
+
+  public void setValues(int[] values) {
+    for (BarPanel lane : lanes) {
+      lane.setValues(Arrays.copyOf(values, values.length));
+    }
+  }
+
+  // Lanes shrink to fit, so the grid asks for no more room than the single
+  // panel whatever the number of algorithms.
+  @Override
+  public Dimension getPreferredSize() {
+    return new Dimension(1000, 450);
+  }
+}
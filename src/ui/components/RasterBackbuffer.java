@@ -0,0 +1,188 @@
+package ui.components;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import constants.UIConstants;
+
+// TYPE_INT_RGB backbuffer that bars are written into directly. Gradients
+// come from lookup tables built once and the grid layer is cached per size.
+// The image persists between frames: a full frame starts from begin(), an
+// incremental one restores only the damaged columns from the grid layer and
+// redraws into them, so a frame allocates nothing.
+final class RasterBackbuffer {
+  static final int BAR = 0;
+  static final int HIGHLIGHT_A = 1;
+  static final int HIGHLIGHT_B = 2;
+  static final int SORTED = 3;
+
+  private static final int LUT_SIZE = 256;
+  private static final int GRID_SPACING = 50;
+  private static final int GLOSS_ALPHA = 35;
+  private static final Color[][] PALETTES = {
+      { UIConstants.BAR_START, UIConstants.BAR_END },
+      { UIConstants.HIGHLIGHT_A_START, UIConstants.HIGHLIGHT_A_END },
+      { UIConstants.HIGHLIGHT_B_START, UIConstants.HIGHLIGHT_B_END },
+      { UIConstants.SORTED_START, UIConstants.SORTED_END }
+  };
+
+  private final int[][] gradients = new int[PALETTES.length][LUT_SIZE];
+  private final int[][] glossGradients = new int[PALETTES.length][LUT_SIZE];
+  private final int[] startColors = new int[PALETTES.length];
+  private final int[] endColors = new int[PALETTES.length];
+  private final int runBoundaryColor = UIConstants.RUN_BOUNDARY.getRGB() & 0xFFFFFF;
+
+  private BufferedImage image;
+  private int[] pixels;
+  private BufferedImage gridLayer;
+  private int[] background;
+  private int width;
+  private int height;
+  private int clipX0;
+  private int clipX1;
+
+  RasterBackbuffer() {
+    for (int p = 0; p < PALETTES.length; p++) {
+      int start = PALETTES[p][0].getRGB();
+      int end = PALETTES[p][1].getRGB();
+      startColors[p] = start & 0xFFFFFF;
+      endColors[p] = end & 0xFFFFFF;
+      for (int i = 0; i < LUT_SIZE; i++) {
+        int c = lerp(start, end, i, LUT_SIZE - 1);
+        gradients[p][i] = c;
+        glossGradients[p][i] = lerp(c, 0xFFFFFF, GLOSS_ALPHA, 255);
+      }
+    }
+  }
+
+  BufferedImage getImage() {
+    return image;
+  }
+
+  boolean matches(int w, int h) {
+    return image != null && w == width && h == height;
+  }
+
+  // Starts a full frame: resizes if needed and resets to background plus grid.
+  void begin(int w, int h) {
+    w = Math.max(1, w);
+    h = Math.max(1, h);
+    if (w != width || h != height) {
+      width = w;
+      height = h;
+      image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+      pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+    gridLayer(w, h);
+    System.arraycopy(background, 0, pixels, 0, pixels.length);
+    clipX0 = 0;
+    clipX1 = width;
+  }
+
+  // Restores columns [x0, x1) to the grid layer and limits drawing to them
+  // until the next restore() or begin().
+  void restore(int x0, int x1) {
+    clipX0 = Math.max(0, x0);
+    clipX1 = Math.min(width, x1);
+    int span = clipX1 - clipX0;
+    if (span <= 0)
+      return;
+    for (int row = clipX0; row < pixels.length; row += width) {
+      System.arraycopy(background, row, pixels, row, span);
+    }
+  }
+
+  // Background plus grid, shared with the vector renderer.
+  BufferedImage gridLayer(int w, int h) {
+    w = Math.max(1, w);
+    h = Math.max(1, h);
+    if (gridLayer == null || gridLayer.getWidth() != w || gridLayer.getHeight() != h) {
+      gridLayer = buildGridLayer(w, h);
+      background = ((DataBufferInt) gridLayer.getRaster().getDataBuffer()).getData();
+    }
+    return gridLayer;
+  }
+
+  // Gradient bar covering rows [top, bottom), matching the vector renderer:
+  // start color at the top, end color at the bottom, a light gloss over the
+  // top third (at most 20 px) and clipped corners on bars wider than 3 px.
+  void fillBar(int x, int barWidth, int top, int bottom, int palette) {
+    int x0 = Math.max(clipX0, x);
+    int x1 = Math.min(clipX1, x + barWidth);
+    int y0 = Math.max(0, top);
+    int y1 = Math.min(height, bottom);
+    if (x0 >= x1 || y0 >= y1)
+      return;
+
+    int barHeight = bottom - top;
+    int gloss = barHeight > 10 ? Math.min(barHeight / 3, 20) : 0;
+    boolean rounded = barWidth > 3;
+    int[] lut = gradients[palette];
+    int[] glossLut = glossGradients[palette];
+    int span = Math.max(1, barHeight - 1);
+    for (int y = y0; y < y1; y++) {
+      int r = y - top;
+      int lutIndex = r * (LUT_SIZE - 1) / span;
+      int color = r < gloss ? glossLut[lutIndex] : lut[lutIndex];
+      int row = y * width;
+      int from = x0;
+      int to = x1;
+      if (rounded && (r == 0 || r == barHeight - 1)) {
+        from = Math.max(from, x + 1);
+        to = Math.min(to, x + barWidth - 1);
+      }
+      for (int px = from; px < to; px++) {
+        pixels[row + px] = color;
+      }
+    }
+  }
+
+  // One-pixel LOD column: solid start color up to the bucket minimum, end
+  // color for the min-to-max spread above it.
+  void fillColumn(int x, int baseline, int minHeight, int maxHeight, int palette) {
+    if (x < clipX0 || x >= clipX1)
+      return;
+    fillRows(x, baseline - minHeight, baseline, startColors[palette]);
+    if (maxHeight > minHeight) {
+      fillRows(x, baseline - maxHeight, baseline - minHeight, endColors[palette]);
+    }
+  }
+
+  void fillRunBoundary(int x, int bottom) {
+    for (int px = Math.max(clipX0, x - 1); px < Math.min(clipX1, x + 1); px++) {
+      fillRows(px, 0, bottom, runBoundaryColor);
+    }
+  }
+
+  private void fillRows(int x, int top, int bottom, int color) {
+    int y0 = Math.max(0, top);
+    int y1 = Math.min(height, bottom);
+    for (int idx = y0 * width + x; y0 < y1; y0++, idx += width) {
+      pixels[idx] = color;
+    }
+  }
+
+  private static BufferedImage buildGridLayer(int w, int h) {
+    int bg = UIConstants.VIZ_BG_COLOR.getRGB();
+    Color gridColor = UIConstants.GRID_COLOR;
+    int grid = lerp(bg, gridColor.getRGB(), gridColor.getAlpha(), 255);
+    BufferedImage layer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    int[] pixels = ((DataBufferInt) layer.getRaster().getDataBuffer()).getData();
+    for (int y = 0; y < h; y++) {
+      for (int x = 0; x < w; x++) {
+        boolean onGrid = y % GRID_SPACING == 0 || x % GRID_SPACING == 0;
+        pixels[y * w + x] = onGrid ? grid : bg & 0xFFFFFF;
+      }
+    }
+    return layer;
+  }
+
+  // Blends RGB a towards b by num/den.
+  private static int lerp(int a, int b, int num, int den) {
+    int r = ((a >> 16) & 0xFF) + (((b >> 16) & 0xFF) - ((a >> 16) & 0xFF)) * num / den;
+    int g = ((a >> 8) & 0xFF) + (((b >> 8) & 0xFF) - ((a >> 8) & 0xFF)) * num / den;
+    int bl = (a & 0xFF) + ((b & 0xFF) - (a & 0xFF)) * num / den;
+    return (r << 16) | (g << 8) | bl;
+  }
+}
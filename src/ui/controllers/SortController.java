@@ -1,18 +1,71 @@
 package ui.controllers;
 
 import java.awt.Color;
-
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
+import algorithms.HeadToHead;
+import algorithms.SortAlgorithm;
 import algorithms.SortingAlgorithms;
+import audio.Voice;
+import model.ExecutionMode;
+import model.Pacer;
+import model.RunMetrics;
+import model.RunResult;
 import model.SortingState;
+import model.StepGate;
+import model.WorkerPools;
+import trace.OperationTrace;
+import trace.TraceCache;
+import trace.TraceFile;
+import trace.TracePlayer;
+import trace.TraceWriter;
 import ui.SortVisualizerFrame;
+import ui.callbacks.FrameStateCallback;
 import ui.callbacks.VisualizationCallback;
 import ui.components.BarPanel;
 import util.ArrayGenerator;
 
 public class SortController {
+  private static final int FRAME_INTERVAL_MS = 16;
+  private static final int VERDICT_TIMEOUT_MS = 15_000;
+
   private final SortVisualizerFrame frame;
+  private final Timer frameTimer = new Timer(FRAME_INTERVAL_MS, e -> publishFrame());
+  // Panels being fed by a worker; only touched on the EDT.
+  private final List<LiveView> liveViews = new ArrayList<>();
+  private int[] comparisonInput = new int[0];
+  private AtomicBoolean verdictCancelled;
+  private JFileChooser traceChooser;
+  private boolean paused = false;
+  private final TracePrefetcher prefetcher = new TracePrefetcher(TraceCache.getDefault(), this::reportFailure);
+  // Runs whose operation count is known from a cached trace; EDT only.
+  private final List<RunProgress> progress = new ArrayList<>();
+  // Trace being played into the single panel, for the timeline to follow.
+  private volatile TracePlayer activePlayer;
+  // Idle timeline seeks run on a pooled worker; only the latest target is kept.
+  private volatile Scrub scrub;
+  private final AtomicLong pendingSeek = new AtomicLong(-1);
+  private final AtomicBoolean seeking = new AtomicBoolean();
 
   public SortController(SortVisualizerFrame frame) {
     this.frame = frame;
@@ -23,315 +76,596 @@ public class SortController {
       return;
 
     frame.getRunning().set(true);
-    frame.getSingleState().getStopRequested().set(false);
-    frame.getState1().getStopRequested().set(false);
-    frame.getState2().getStopRequested().set(false);
+    cancelVerdict();
+    prefetcher.cancel();
+    for (SortingState state : allStates()) {
+      state.getStopRequested().set(false);
+    }
     frame.getToneGenerator().reset();
     frame.setControlsEnabled(false);
 
-    if (frame.getCompareToggle().isSelected()) {
-      startComparisonSort();
+    ExecutionMode mode = frame.getExecutionMode();
+    if (frame.isRaceMode()) {
+      startRaceSort(mode);
+    } else if (frame.getCompareToggle().isSelected()) {
+      startComparisonSort(mode);
     } else {
-      startSingleSort();
+      startSingleSort(mode);
     }
   }
 
-  private void startSingleSort() {
+  private void startSingleSort(ExecutionMode mode) {
     BarPanel panel = frame.getBarPanel();
-    if (panel.getValues() == null || panel.getValues().length == 0)
+    if (panel.getValues() == null || panel.getValues().length == 0) {
+      resetUiAfterRun();
+      return;
+    }
+    if (frame.getLoadedTrace() != null) {
+      startTracePlayback(frame.getLoadedTrace());
       return;
+    }
 
-    SortingState state = frame.getSingleState();
-    state.setStartTime(System.currentTimeMillis());
-    int[] arr = ArrayGenerator.copyArray(panel.getValues());
-    String algo = (String) frame.getAlgoCombo().getSelectedItem();
+    SortAlgorithm algo = frame.getSelectedAlgorithm();
+    boolean soundEnabled = frame.getSoundToggle().isSelected();
+    Voice voice = frame.getToneGenerator().voice(0, 1);
+    CompletableFuture<RunResult> run = launch(mode, panel, frame.getSingleState(), algo,
+        ArrayGenerator.copyArray(panel.getValues()), soundEnabled, voice);
 
-    panel.setSortingState(true);
+    run.whenCompleteAsync((result, error) -> {
+      reportFailure(error);
+      resetUiAfterRun();
+    }, SwingUtilities::invokeLater);
+  }
 
-    VisualizationCallback callback = new VisualizationCallback() {
-      @Override
-      public void onHighlight(int i, int j) {
-        SwingUtilities.invokeLater(() -> panel.setHighlights(i, j));
-      }
+  private void startComparisonSort(ExecutionMode mode) {
+    BarPanel panel1 = frame.getBarPanel1();
+    BarPanel panel2 = frame.getBarPanel2();
 
-      @Override
-      public void onClearHighlights() {
-        SwingUtilities.invokeLater(() -> panel.clearHighlights());
-      }
+    if (panel1.getValues() == null || panel1.getValues().length == 0) {
+      resetUiAfterRun();
+      return;
+    }
 
-      @Override
-      public void onRepaint() {
-        SwingUtilities.invokeLater(() -> panel.repaint());
-      }
+    comparisonInput = ArrayGenerator.copyArray(panel1.getValues());
+    SortAlgorithm algo1 = frame.getSelectedAlgorithm1();
+    SortAlgorithm algo2 = frame.getSelectedAlgorithm2();
+    boolean soundEnabled = frame.getSoundToggle().isSelected();
+    Voice voice1 = frame.getToneGenerator().voice(0, 2);
+    Voice voice2 = frame.getToneGenerator().voice(1, 2);
 
-      @Override
-      public void onIncrementComparisons() {
-        SwingUtilities.invokeLater(() -> panel.incrementComparisons());
-      }
+    frame.getComparisonResultLabel().setText("Both algorithms are running...");
+    frame.getComparisonResultLabel().setForeground(new Color(251, 191, 36));
 
-      @Override
-      public void onIncrementSwaps() {
-        SwingUtilities.invokeLater(() -> panel.incrementSwaps());
-      }
+    CompletableFuture<RunResult> run1 = launch(mode, panel1, frame.getState1(), algo1,
+        ArrayGenerator.copyArray(panel1.getValues()), soundEnabled, voice1);
+    CompletableFuture<RunResult> run2 = launch(mode, panel2, frame.getState2(), algo2,
+        ArrayGenerator.copyArray(panel2.getValues()), soundEnabled, voice2);
 
-      @Override
-      public void onStepDelay() {
-        frame.stepDelay();
+    CompletableFuture.allOf(run1, run2).whenCompleteAsync((ignored, error) -> {
+      reportFailure(error);
+      if (error == null && !frame.getState1().getStopRequested().get()
+          && !frame.getState2().getStopRequested().get()) {
+        showComparison(run1.join(), run2.join());
       }
-    };
+      resetUiAfterRun();
+    }, SwingUtilities::invokeLater);
+  }
 
-    SortingAlgorithms sorter = new SortingAlgorithms(arr, callback,
-        state.getStopRequested(), frame.getSoundToggle().isSelected(),
-        frame.getToneGenerator());
+  // Plays the loaded file from the timeline position, or from the start once
+  // it has reached the end.
+  private void startTracePlayback(TraceFile trace) {
+    BarPanel panel = frame.getBarPanel();
+    SortingState state = frame.getSingleState();
+    long start = frame.getTimelinePosition() < trace.size() ? frame.getTimelinePosition() : 0;
+    boolean soundEnabled = frame.getSoundToggle().isSelected();
+    Voice voice = frame.getToneGenerator().voice(0, 1);
+    int[] arr = ArrayGenerator.copyArray(panel.getValues());
 
-    Thread timerThread = createTimerThread(state, panel);
-    state.setTimerThread(timerThread);
-    timerThread.start();
+    CompletableFuture<RunResult> run = launch(panel, state, "Trace: " + trace.getPath().getFileName(),
+        arr, null, callback -> {
+          TracePlayer player = new TracePlayer(trace, arr, callback,
+              state.getStopRequested(), soundEnabled, voice);
+          player.setStepGate(state.getStepGate());
+          player.seek(start);
+          activePlayer = player;
+          player.play();
+        });
+
+    run.whenCompleteAsync((result, error) -> {
+      reportFailure(error);
+      resetUiAfterRun();
+    }, SwingUtilities::invokeLater);
+  }
 
-    Thread workerThread = new Thread(() -> {
-      try {
-        runAlgorithm(sorter, algo);
-        if (!state.getStopRequested().get()) {
-          SwingUtilities.invokeLater(() -> panel.setSortedState());
+  // Every lane sorts its own copy of one input; each result joins the
+  // leaderboard as soon as it lands, and the UI resets once all have.
+  private void startRaceSort(ExecutionMode mode) {
+    List<BarPanel> lanes = frame.getRaceGrid().getLanes();
+    if (lanes.isEmpty() || lanes.get(0).getValues() == null || lanes.get(0).getValues().length == 0) {
+      resetUiAfterRun();
+      return;
+    }
+
+    int[] input = ArrayGenerator.copyArray(lanes.get(0).getValues());
+    List<SortAlgorithm> algorithms = frame.getRaceAlgorithms();
+    List<SortingState> states = frame.getRaceStates();
+    boolean soundEnabled = frame.getSoundToggle().isSelected();
+    frame.getLeaderboard().clear();
+
+    CompletableFuture<?>[] runs = new CompletableFuture<?>[lanes.size()];
+    for (int k = 0; k < runs.length; k++) {
+      SortingState state = states.get(k);
+      Voice voice = frame.getToneGenerator().voice(k, runs.length);
+      runs[k] = launch(mode, lanes.get(k), state, algorithms.get(k),
+          ArrayGenerator.copyArray(input), soundEnabled, voice).thenAccept(result -> {
+            if (!state.getStopRequested().get()) {
+              frame.getLeaderboard().add(result);
+            }
+          });
+    }
+
+    CompletableFuture.allOf(runs).whenCompleteAsync((ignored, error) -> {
+      reportFailure(error);
+      resetUiAfterRun();
+    }, SwingUtilities::invokeLater);
+  }
+
+  // Runs one sort on a pooled worker. The returned future completes on the
+  // EDT once the panel shows the result, or exceptionally if the sort threw
+  // or the pool already has MAX_RUNS live runs.
+  private CompletableFuture<RunResult> launch(ExecutionMode mode, BarPanel panel,
+      SortingState state, SortAlgorithm algo, int[] arr, boolean soundEnabled, Voice voice) {
+    StepGate liveGate = mode == ExecutionMode.REPLAY ? null : state.getStepGate();
+    OperationTrace known = TraceCache.getDefault().peek(algo.getName(), arr);
+    CompletableFuture<RunResult> run = launch(panel, state, algo.getName(), arr, liveGate,
+        callback -> execute(mode, algo, arr, callback, state, soundEnabled, voice));
+    progress.add(new RunProgress(state.getMetrics(), known == null ? -1 : known.size()));
+    return run;
+  }
+
+  private CompletableFuture<RunResult> launch(BarPanel panel, SortingState state, String name,
+      int[] arr, StepGate liveGate, Consumer<VisualizationCallback> body) {
+    RunMetrics metrics = state.startRun();
+    panel.setSortingState(true);
+    VisualizationCallback callback = createCallback(panel, arr.length, metrics, liveGate, state);
+    panel.attachLiveArray(arr, Pacer.describe(frame.getOpsPerSecond()));
+
+    CompletableFuture<RunResult> run;
+    try {
+      run = CompletableFuture.supplyAsync(() -> {
+        state.attachWorker(Thread.currentThread());
+        try {
+          metrics.start();
+          body.accept(callback);
+        } finally {
+          metrics.finish();
+          state.detachWorker();
         }
-      } catch (Exception e) {
-        e.printStackTrace();
-      } finally {
-        SwingUtilities.invokeLater(this::resetUiAfterRun);
+        return metrics.result(name);
+      }, WorkerPools.runs());
+    } catch (RejectedExecutionException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    return run.thenApplyAsync(result -> {
+      if (!state.getStopRequested().get()) {
+        publishFrame();
+        panel.setSortedState();
+        panel.setToolTipText(result.summary());
       }
-    }, "sort-worker");
+      return result;
+    }, SwingUtilities::invokeLater);
+  }
 
-    state.setWorkerThread(workerThread);
-    panel.attachLiveArray(arr, frame.getSpeedSlider().getValue());
-    workerThread.start();
+  // Safe from any thread; null means there was nothing to report.
+  public void reportFailure(Throwable error) {
+    if (error != null) {
+      Throwable cause = error instanceof CompletionException && error.getCause() != null
+          ? error.getCause() : error;
+      cause.printStackTrace();
+    }
   }
 
-  private void startComparisonSort() {
-    BarPanel panel1 = frame.getBarPanel1();
-    BarPanel panel2 = frame.getBarPanel2();
+  // Live runs wait at the gate on every step; trace players handle pausing
+  // themselves and pass a null gate.
+  private FrameStateCallback createCallback(BarPanel panel, int arrayLength, RunMetrics metrics,
+      StepGate gate, SortingState state) {
+    Pacer pacer = new Pacer(frame::getOpsPerSecond, state.getStopRequested());
+    Runnable stepDelay = gate == null ? pacer::pace : () -> {
+      gate.pass(state.getStopRequested());
+      pacer.pace();
+    };
+    FrameStateCallback callback = new FrameStateCallback(arrayLength, metrics, stepDelay);
+    liveViews.add(new LiveView(panel, callback));
+    if (!frameTimer.isRunning()) {
+      frameTimer.start();
+    }
+    return callback;
+  }
 
-    if (panel1.getValues() == null || panel1.getValues().length == 0)
+  // One EDT event per frame publishes every running panel, replacing the
+  // per-operation invokeLater calls and the per-run timer threads.
+  private void publishFrame() {
+    for (LiveView view : liveViews) {
+      view.callback().publishTo(view.panel());
+    }
+    TracePlayer player = activePlayer;
+    if (player != null) {
+      frame.setTimelinePosition(player.getPosition());
+    }
+    publishProgress();
+  }
+
+  // Shown only when every run's total is known.
+  private void publishProgress() {
+    long done = 0;
+    long total = 0;
+    for (RunProgress run : progress) {
+      if (run.total() < 0) {
+        frame.showProgress(0, 0);
+        return;
+      }
+      done += Math.min(run.total(), run.metrics().snapshot().operations());
+      total += run.total();
+    }
+    frame.showProgress(done, total);
+  }
+
+  // Speculatively records what Start would run on the data now shown. Only
+  // Record & Replay plays from the cache, so other modes prefetch nothing.
+  public void prefetchTraces() {
+    if (frame.getRunning().get() || frame.getLoadedTrace() != null
+        || frame.getExecutionMode() != ExecutionMode.REPLAY) {
+      prefetcher.cancel();
       return;
+    }
+    if (frame.isRaceMode()) {
+      List<BarPanel> lanes = frame.getRaceGrid().getLanes();
+      prefetcher.prefetch(frame.getRaceAlgorithms(), lanes.isEmpty() ? null : lanes.get(0).getValues());
+    } else if (frame.getCompareToggle().isSelected()) {
+      List<SortAlgorithm> algorithms = new ArrayList<>(List.of(frame.getSelectedAlgorithm1()));
+      if (frame.getSelectedAlgorithm2() != frame.getSelectedAlgorithm1()) {
+        algorithms.add(frame.getSelectedAlgorithm2());
+      }
+      prefetcher.prefetch(algorithms, frame.getBarPanel1().getValues());
+    } else {
+      prefetcher.prefetch(List.of(frame.getSelectedAlgorithm()), frame.getBarPanel().getValues());
+    }
+  }
 
-    SortingState state1 = frame.getState1();
-    SortingState state2 = frame.getState2();
+  private void showComparison(RunResult result1, RunResult result2) {
+    RunMetrics.Snapshot m1 = result1.operations();
+    RunMetrics.Snapshot m2 = result2.operations();
+    double time1 = m1.nanos() / 1e9;
+    double time2 = m2.nanos() / 1e9;
 
-    state1.setFinished(false);
-    state2.setFinished(false);
-    state1.setStartTime(System.currentTimeMillis());
-    state2.setStartTime(System.currentTimeMillis());
+    String algo1Name = result1.algorithm();
+    String algo2Name = result2.algorithm();
 
-    int[] arr1 = ArrayGenerator.copyArray(panel1.getValues());
-    int[] arr2 = ArrayGenerator.copyArray(panel2.getValues());
-    String algo1 = (String) frame.getAlgoCombo1().getSelectedItem();
-    String algo2 = (String) frame.getAlgoCombo2().getSelectedItem();
+    StringBuilder result = new StringBuilder("Comparison Complete! ");
 
-    panel1.setSortingState(true);
-    panel2.setSortingState(true);
-    frame.getComparisonResultLabel().setText("Both algorithms are running...");
-    frame.getComparisonResultLabel().setForeground(new Color(251, 191, 36));
+    if (time1 < time2) {
+      result.append(String.format("🏆 %s was faster (%.2fs vs %.2fs)", algo1Name, time1, time2));
+    } else if (time2 < time1) {
+      result.append(String.format("🏆 %s was faster (%.2fs vs %.2fs)", algo2Name, time2, time1));
+    } else {
+      result.append("⚖ Both took the same time!");
+    }
 
-    VisualizationCallback callback1 = createCallback(panel1);
-    VisualizationCallback callback2 = createCallback(panel2);
+    result.append(String.format(" | Comparisons: %d vs %d | Swaps: %d vs %d | Writes: %d vs %d",
+        m1.compares(), m2.compares(), m1.swaps(), m2.swaps(), m1.writes(), m2.writes()));
 
-    SortingAlgorithms sorter1 = new SortingAlgorithms(arr1, callback1,
-        state1.getStopRequested(), frame.getSoundToggle().isSelected(),
-        frame.getToneGenerator());
-    SortingAlgorithms sorter2 = new SortingAlgorithms(arr2, callback2,
-        state2.getStopRequested(), frame.getSoundToggle().isSelected(),
-        frame.getToneGenerator());
+    result.append(" | Timing repeated unanimated runs...");
+    frame.getComparisonResultLabel().setText(result.toString());
+    frame.getComparisonResultLabel().setForeground(new Color(16, 185, 129));
+    startVerdict(frame.getSelectedAlgorithm1(), frame.getSelectedAlgorithm2(),
+        result.substring(0, result.lastIndexOf(" | ")));
+  }
 
-    Thread timerThread1 = createTimerThread(state1, panel1);
-    Thread timerThread2 = createTimerThread(state2, panel2);
-    state1.setTimerThread(timerThread1);
-    state2.setTimerThread(timerThread2);
-    timerThread1.start();
-    timerThread2.start();
+  // The animated race mostly measures step delays and the two runs share the
+  // CPU, so the verdict comes from alternating repeated runs of the
+  // uninstrumented sorts on the same input.
+  private void startVerdict(SortAlgorithm algo1, SortAlgorithm algo2, String raceSummary) {
+    AtomicBoolean cancelled = new AtomicBoolean(false);
+    verdictCancelled = cancelled;
+    int[] input = comparisonInput;
+
+    ScheduledFuture<?> timeout = WorkerPools.scheduler().schedule(
+        () -> cancelled.set(true), VERDICT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+    CompletableFuture.supplyAsync(() -> HeadToHead.measure(algo1, algo2, input, cancelled),
+        WorkerPools.tasks()).whenCompleteAsync((estimate, error) -> {
+          timeout.cancel(false);
+          reportFailure(error);
+          if (verdictCancelled != cancelled)
+            return;
+          verdictCancelled = null;
+          frame.getComparisonResultLabel().setText(raceSummary + " | "
+              + describeVerdict(algo1.getName(), algo2.getName(), estimate));
+        }, SwingUtilities::invokeLater);
+  }
 
-    Thread workerThread1 = new Thread(() -> {
-      try {
-        runAlgorithm(sorter1, algo1);
-        state1.setFinished(true);
-        if (!state1.getStopRequested().get()) {
-          SwingUtilities.invokeLater(() -> {
-            panel1.setSortedState();
-            checkComparisonComplete();
-          });
-        }
-      } catch (Exception e) {
-        e.printStackTrace();
-      } finally {
-        synchronized (this) {
-          if (state1.isFinished() && state2.isFinished()) {
-            SwingUtilities.invokeLater(this::resetUiAfterRun);
-          }
-        }
-      }
-    }, "sort-worker-1");
+  private String describeVerdict(String name1, String name2, HeadToHead.Estimate estimate) {
+    if (estimate == null) {
+      return "Repeated runs timed out";
+    }
+    String runs = estimate.pairs() + " runs each";
+    if (!estimate.isSignificant()) {
+      return String.format("Unanimated: no significant difference (%.2f×, 95%% CI %.2f–%.2f×, %s)",
+          estimate.ratio(), estimate.low(), estimate.high(), runs);
+    }
+    if (estimate.ratio() < 1) {
+      return String.format("Unanimated: %s is %.2f× faster (95%% CI %.2f–%.2f×, %s)",
+          name1, 1 / estimate.ratio(), 1 / estimate.high(), 1 / estimate.low(), runs);
+    }
+    return String.format("Unanimated: %s is %.2f× faster (95%% CI %.2f–%.2f×, %s)",
+        name2, estimate.ratio(), estimate.low(), estimate.high(), runs);
+  }
 
-    Thread workerThread2 = new Thread(() -> {
-      try {
-        runAlgorithm(sorter2, algo2);
-        state2.setFinished(true);
-        if (!state2.getStopRequested().get()) {
-          SwingUtilities.invokeLater(() -> {
-            panel2.setSortedState();
-            checkComparisonComplete();
-          });
+  private void cancelVerdict() {
+    if (verdictCancelled != null) {
+      verdictCancelled.set(true);
+      verdictCancelled = null;
+    }
+  }
+
+  private void execute(ExecutionMode mode, SortAlgorithm algo, int[] arr,
+      VisualizationCallback callback, SortingState state, boolean soundEnabled, Voice voice) {
+    if (mode == ExecutionMode.REPLAY) {
+      // Replaying the same algorithm on the same input skips recording.
+      OperationTrace trace = cachedTrace(algo.getName(), arr);
+      if (trace == null) {
+        trace = new OperationTrace(arr);
+        SortingAlgorithms recorder = new SortingAlgorithms(ArrayGenerator.copyArray(arr), null,
+            state.getStopRequested(), false, null);
+        recorder.recordTo(trace);
+        algo.visualize(recorder);
+        trace.trimToSize();
+        if (!state.getStopRequested().get()) {
+          cacheTrace(algo.getName(), trace);
         }
-      } catch (Exception e) {
-        e.printStackTrace();
-      } finally {
-        synchronized (this) {
-          if (state1.isFinished() && state2.isFinished()) {
-            SwingUtilities.invokeLater(this::resetUiAfterRun);
-          }
+        // The recorder has no callback for its pool workers to report to.
+        if (algo.isParallel()) {
+          state.getMetrics().discardCpu();
         }
       }
-    }, "sort-worker-2");
 
-    state1.setWorkerThread(workerThread1);
-    state2.setWorkerThread(workerThread2);
-    panel1.attachLiveArray(arr1, frame.getSpeedSlider().getValue());
-    panel2.attachLiveArray(arr2, frame.getSpeedSlider().getValue());
-    workerThread1.start();
-    workerThread2.start();
+      TracePlayer player = new TracePlayer(trace, arr, callback,
+          state.getStopRequested(), soundEnabled, voice);
+      player.setStepGate(state.getStepGate());
+      player.play();
+    } else if (mode == ExecutionMode.BENCHMARK) {
+      // Uninstrumented parallel sorts work on pool threads this run cannot
+      // measure.
+      if (algo.isParallel()) {
+        state.getMetrics().discardCpu();
+      }
+      algo.sort(arr, state.getStopRequested());
+      callback.onRepaint();
+    } else {
+      SortingAlgorithms sorter = new SortingAlgorithms(arr, callback,
+          state.getStopRequested(), soundEnabled, voice);
+      algo.visualize(sorter);
+    }
   }
 
-  private Thread createTimerThread(SortingState state, BarPanel panel) {
-    return new Thread(() -> {
-      while (frame.getRunning().get() && !Thread.currentThread().isInterrupted()) {
-        try {
-          Thread.sleep(100);
-          long elapsed = (System.currentTimeMillis() - state.getStartTime()) / 1000;
-          SwingUtilities.invokeLater(() -> panel.setElapsedTime(elapsed));
-        } catch (InterruptedException e) {
-          break;
-        }
-      }
-    }, "timer-thread");
+  // A spilled trace that cannot be written or read back costs only the
+  // cached copy, so the run reports it and goes on as after a miss.
+  private OperationTrace cachedTrace(String name, int[] input) {
+    try {
+      return TraceCache.getDefault().get(name, input);
+    } catch (UncheckedIOException e) {
+      reportFailure(e);
+      return null;
+    }
   }
 
-  private VisualizationCallback createCallback(BarPanel panel) {
-    return new VisualizationCallback() {
-      @Override
-      public void onHighlight(int i, int j) {
-        SwingUtilities.invokeLater(() -> panel.setHighlights(i, j));
-      }
+  private void cacheTrace(String name, OperationTrace trace) {
+    try {
+      TraceCache.getDefault().put(name, trace);
+    } catch (UncheckedIOException e) {
+      reportFailure(e);
+    }
+  }
 
-      @Override
-      public void onClearHighlights() {
-        SwingUtilities.invokeLater(() -> panel.clearHighlights());
-      }
+  // Records the selected algorithm on the input shown in the main panel
+  // straight to disk, without animating it. Stop abandons the file.
+  public void saveTrace() {
+    if (frame.getRunning().get())
+      return;
+    int[] values = frame.getBarPanel().getValues();
+    if (values == null || values.length == 0)
+      return;
 
-      @Override
-      public void onRepaint() {
-        SwingUtilities.invokeLater(() -> panel.repaint());
-      }
+    SortAlgorithm algo = frame.getSelectedAlgorithm();
+    JFileChooser chooser = traceChooser();
+    chooser.setSelectedFile(new File(chooser.getCurrentDirectory(),
+        algo.getName().toLowerCase().replace(' ', '-') + ".strace"));
+    if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION)
+      return;
+    String name = chooser.getSelectedFile().getPath();
+    Path path = Path.of(name.endsWith(".strace") ? name : name + ".strace");
 
-      @Override
-      public void onIncrementComparisons() {
-        SwingUtilities.invokeLater(() -> panel.incrementComparisons());
-      }
+    SortingState state = frame.getSingleState();
+    int[] input = ArrayGenerator.copyArray(values);
+    frame.getRunning().set(true);
+    state.getStopRequested().set(false);
+    frame.setControlsEnabled(false);
 
-      @Override
-      public void onIncrementSwaps() {
-        SwingUtilities.invokeLater(() -> panel.incrementSwaps());
+    CompletableFuture.supplyAsync(() -> {
+      state.attachWorker(Thread.currentThread());
+      try {
+        long operations;
+        try (TraceWriter writer = new TraceWriter(path, input)) {
+          SortingAlgorithms recorder = new SortingAlgorithms(ArrayGenerator.copyArray(input), null,
+              state.getStopRequested(), false, null);
+          recorder.recordTo(writer);
+          algo.visualize(recorder);
+          operations = writer.getOperationCount();
+        }
+        long bytes = Files.size(path);
+        return String.format("%s: %,d operations in %,d bytes (%.1f%% of %,d raw)",
+            path.getFileName(), operations, bytes, 100.0 * bytes / Math.max(1, 8 * operations),
+            8 * operations);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        state.detachWorker();
       }
-
-      @Override
-      public void onStepDelay() {
-        frame.stepDelay();
+    }, WorkerPools.tasks()).whenCompleteAsync((summary, error) -> {
+      if (state.getStopRequested().get()) {
+        try {
+          Files.deleteIfExists(path);
+        } catch (IOException e) {
+          reportFailure(e);
+        }
+      } else if (error != null) {
+        reportFailure(error);
+        JOptionPane.showMessageDialog(frame, "Could not write " + path + ":\n"
+            + (error.getCause() != null ? error.getCause() : error).getMessage(),
+            "Save Trace", JOptionPane.ERROR_MESSAGE);
+      } else {
+        JOptionPane.showMessageDialog(frame, summary, "Trace Saved", JOptionPane.INFORMATION_MESSAGE);
       }
-    };
+      resetUiAfterRun();
+    }, SwingUtilities::invokeLater);
   }
 
-  private void checkComparisonComplete() {
-    SortingState state1 = frame.getState1();
-    SortingState state2 = frame.getState2();
+  public void openTrace() {
+    if (frame.getRunning().get())
+      return;
+    JFileChooser chooser = traceChooser();
+    if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION)
+      return;
 
-    if (state1.isFinished() && state2.isFinished()) {
-      BarPanel panel1 = frame.getBarPanel1();
-      BarPanel panel2 = frame.getBarPanel2();
+    Path path = chooser.getSelectedFile().toPath();
+    try {
+      TraceFile trace = TraceFile.open(path);
+      int[] array = new int[trace.getArrayLength()];
+      TracePlayer scrubber = new TracePlayer(trace, array, null, new AtomicBoolean(), false, null);
+      scrub = new Scrub(trace, scrubber, array);
+      prefetcher.cancel();
+      frame.showTrace(trace, array);
+    } catch (IOException e) {
+      JOptionPane.showMessageDialog(frame, "Could not open " + path + ":\n" + e.getMessage(),
+          "Open Trace", JOptionPane.ERROR_MESSAGE);
+    }
+  }
 
-      long time1 = panel1.getElapsedSeconds();
-      long time2 = panel2.getElapsedSeconds();
-      long comp1 = panel1.getComparisons();
-      long comp2 = panel2.getComparisons();
-      long swap1 = panel1.getSwaps();
-      long swap2 = panel2.getSwaps();
+  public void seekTrace(long target) {
+    if (scrub == null)
+      return;
+    pendingSeek.set(target);
+    if (seeking.compareAndSet(false, true)) {
+      WorkerPools.tasks().execute(this::drainSeeks);
+    }
+  }
 
-      String algo1Name = (String) frame.getAlgoCombo1().getSelectedItem();
-      String algo2Name = (String) frame.getAlgoCombo2().getSelectedItem();
+  private void drainSeeks() {
+    do {
+      long target;
+      while ((target = pendingSeek.getAndSet(-1)) >= 0) {
+        Scrub current = scrub;
+        current.player().seek(target);
+        int[] snapshot = ArrayGenerator.copyArray(current.array());
+        SwingUtilities.invokeLater(() -> {
+          if (!frame.getRunning().get() && frame.getLoadedTrace() == current.trace()) {
+            frame.getBarPanel().setValues(snapshot);
+          }
+        });
+      }
+      seeking.set(false);
+    } while (pendingSeek.get() >= 0 && seeking.compareAndSet(false, true));
+  }
 
-      StringBuilder result = new StringBuilder("Comparison Complete! ");
+  private JFileChooser traceChooser() {
+    if (traceChooser == null) {
+      traceChooser = new JFileChooser();
+      traceChooser.setFileFilter(new FileNameExtensionFilter("Sort traces (*.strace)", "strace"));
+    }
+    return traceChooser;
+  }
 
-      if (time1 < time2) {
-        result.append(String.format("🏆 %s was faster (%ds vs %ds)", algo1Name, time1, time2));
-      } else if (time2 < time1) {
-        result.append(String.format("🏆 %s was faster (%ds vs %ds)", algo2Name, time2, time1));
+  // Pause, resume and steps apply to every run, so compared and raced sorts
+  // stay in lockstep.
+  public void togglePause() {
+    if (!frame.getRunning().get())
+      return;
+    paused = !paused;
+    for (SortingState state : allStates()) {
+      if (paused) {
+        state.getStepGate().pause();
       } else {
-        result.append("⚖ Both took the same time!");
+        state.getStepGate().resume();
       }
-
-      result.append(String.format(" | Comparisons: %d vs %d | Swaps: %d vs %d", comp1, comp2, swap1, swap2));
-
-      frame.getComparisonResultLabel().setText(result.toString());
-      frame.getComparisonResultLabel().setForeground(new Color(16, 185, 129));
     }
+    frame.showPaused(paused);
   }
 
-  private void runAlgorithm(SortingAlgorithms sorter, String algo) {
-    switch (algo) {
-      case "Bubble Sort" -> sorter.bubbleSort();
-      case "Selection Sort" -> sorter.selectionSort();
-      case "Insertion Sort" -> sorter.insertionSort();
-      case "Merge Sort" -> sorter.mergeSort();
-      case "Quick Sort" -> sorter.quickSort();
-      case "Heap Sort" -> sorter.heapSort();
-      case "Shell Sort" -> sorter.shellSort();
-      case "Cocktail Sort" -> sorter.cocktailSort();
-      case "Comb Sort" -> sorter.combSort();
-      case "Gnome Sort" -> sorter.gnomeSort();
-      case "Radix Sort" -> sorter.radixSort();
-      case "Counting Sort" -> sorter.countingSort();
+  public void step(long operations) {
+    if (!paused)
+      return;
+    for (SortingState state : allStates()) {
+      state.getStepGate().step(operations);
     }
   }
 
+  // Every state a run can use; idle ones ignore stops, pauses and steps.
+  private List<SortingState> allStates() {
+    List<SortingState> states = new ArrayList<>();
+    states.add(frame.getSingleState());
+    states.add(frame.getState1());
+    states.add(frame.getState2());
+    states.addAll(frame.getRaceStates());
+    return states;
+  }
+
   public void requestStop() {
     if (!frame.getRunning().get()) {
       return;
     }
 
-    frame.getSingleState().stop();
-    frame.getState1().stop();
-    frame.getState2().stop();
+    for (SortingState state : allStates()) {
+      state.stop();
+    }
     frame.getToneGenerator().stopAllSounds();
-
-    new Thread(() -> {
-      try {
-        Thread.sleep(300);
-        SwingUtilities.invokeLater(this::resetUiAfterRun);
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
-      }
-    }, "stop-handler").start();
+    // The runs notice the stop at their next operation; their completion
+    // resets the UI.
   }
 
   private void resetUiAfterRun() {
+    publishFrame();
+    activePlayer = null;
+    paused = false;
+    progress.clear();
+    frame.showProgress(0, 0);
+    frameTimer.stop();
+    liveViews.clear();
     frame.getRunning().set(false);
-    frame.getSingleState().reset();
-    frame.getState1().reset();
-    frame.getState2().reset();
+    for (SortingState state : allStates()) {
+      state.reset();
+    }
     frame.getToneGenerator().stopAllSounds();
     frame.getToneGenerator().reset();
     frame.setControlsEnabled(true);
 
-    if (!frame.getCompareToggle().isSelected()) {
+    if (frame.isRaceMode()) {
+      for (BarPanel lane : frame.getRaceGrid().getLanes()) {
+        lane.setSortingState(false);
+      }
+    } else if (!frame.getCompareToggle().isSelected()) {
       frame.getBarPanel().setSortingState(false);
     } else {
       frame.getBarPanel1().setSortingState(false);
       frame.getBarPanel2().setSortingState(false);
     }
   }
+
+  private record LiveView(BarPanel panel, FrameStateCallback callback) {
+  }
+
+  private record Scrub(TraceFile trace, TracePlayer player, int[] array) {
+  }
+
+  private record RunProgress(RunMetrics metrics, long total) {
+  }
 }
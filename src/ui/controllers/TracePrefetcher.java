@@ -0,0 +1,94 @@
+package ui.controllers;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import algorithms.SortAlgorithm;
+import algorithms.SortingAlgorithms;
+import model.WorkerPools;
+import trace.OperationTrace;
+import trace.TraceCache;
+import util.ArrayGenerator;
+
+// Records the traces the next Start will want while the user is idle, one
+// algorithm at a time on the background pool, into the trace cache. Any
+// change of input or selection cancels the outstanding work: queued jobs are
+// dropped and a running recorder sees its stop flag at the next operation.
+// Parallel algorithms are left out: they would fork onto the shared
+// fork/join pool at normal priority and compete with the run in progress.
+public class TracePrefetcher {
+  // Check the trace size against the cache budget this often.
+  private static final int SIZE_CHECK_MASK = (1 << 16) - 1;
+
+  private final TraceCache cache;
+  private final Consumer<Throwable> onFailure;
+  // Only touched on the EDT.
+  private final List<Job> jobs = new ArrayList<>();
+
+  // Spill failures go to onFailure, on the background thread.
+  public TracePrefetcher(TraceCache cache, Consumer<Throwable> onFailure) {
+    this.cache = cache;
+    this.onFailure = onFailure;
+  }
+
+  public void prefetch(List<SortAlgorithm> algorithms, int[] input) {
+    cancel();
+    if (input == null || input.length == 0)
+      return;
+    int[] snapshot = ArrayGenerator.copyArray(input);
+    for (SortAlgorithm algorithm : algorithms) {
+      if (algorithm.isParallel())
+        continue;
+      AtomicBoolean cancelled = new AtomicBoolean();
+      Future<?> future = WorkerPools.background().submit(() -> record(algorithm, snapshot, cancelled));
+      jobs.add(new Job(cancelled, future));
+    }
+  }
+
+  public void cancel() {
+    for (Job job : jobs) {
+      job.cancelled().set(true);
+      job.future().cancel(false);
+    }
+    jobs.clear();
+  }
+
+  private void record(SortAlgorithm algorithm, int[] input, AtomicBoolean cancelled) {
+    try {
+      if (cancelled.get() || cache.get(algorithm.getName(), input) != null)
+        return;
+    } catch (UncheckedIOException e) {
+      // The unreadable spill is gone, so record it again.
+      onFailure.accept(e);
+    }
+
+    // Quadratic sorts on large inputs would never fit the cache, so a
+    // recording that outgrows it gives up.
+    OperationTrace trace = new OperationTrace(input);
+    long limit = cache.getBudgetBytes();
+    SortingAlgorithms recorder = new SortingAlgorithms(ArrayGenerator.copyArray(input), null,
+        cancelled, false, null);
+    recorder.recordTo((opcode, a, b) -> {
+      trace.append(opcode, a, b);
+      if ((trace.size() & SIZE_CHECK_MASK) == 0 && trace.sizeInBytes() > limit) {
+        cancelled.set(true);
+      }
+    });
+    algorithm.visualize(recorder);
+    if (!cancelled.get()) {
+      trace.trimToSize();
+      try {
+        cache.put(algorithm.getName(), trace);
+      } catch (UncheckedIOException e) {
+        onFailure.accept(e);
+      }
+    }
+  }
+
+  private record Job(AtomicBoolean cancelled, Future<?> future) {
+  }
+}
@@ -13,6 +13,41 @@ public class ArrayGenerator {
     return arr;
   }
 
+  public static int[] generateArray(int size, InputDistribution distribution, Random random) {
+    int[] arr = new int[size];
+    switch (distribution) {
+      case RANDOM -> {
+        // Keys stay proportional to n so counting sort's range stays bounded.
+        int bound = Math.max(1000, size);
+        for (int i = 0; i < size; i++) {
+          arr[i] = random.nextInt(bound);
+        }
+      }
+      case SORTED -> {
+        for (int i = 0; i < size; i++) {
+          arr[i] = i;
+        }
+      }
+      case REVERSED -> {
+        for (int i = 0; i < size; i++) {
+          arr[i] = size - i;
+        }
+      }
+      case FEW_UNIQUE -> {
+        for (int i = 0; i < size; i++) {
+          arr[i] = random.nextInt(16);
+        }
+      }
+      case SAWTOOTH -> {
+        int tooth = Math.max(1, (int) Math.sqrt(size));
+        for (int i = 0; i < size; i++) {
+          arr[i] = i % tooth;
+        }
+      }
+    }
+    return arr;
+  }
+
   public static int[] copyArray(int[] source) {
     if (source == null) {
       return new int[0];
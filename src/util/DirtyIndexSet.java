@@ -0,0 +1,41 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+// Concurrent bitset of array indexes written since the last drain. Writers
+// from any thread mark bits; a single reader drains them once per frame.
+public class DirtyIndexSet {
+  private final AtomicLongArray words;
+
+  public DirtyIndexSet(int length) {
+    this.words = new AtomicLongArray(Math.max(1, (length + 63) >>> 6));
+  }
+
+  public void mark(int index) {
+    int w = index >>> 6;
+    long bit = 1L << index;
+    long current = words.get(w);
+    while ((current & bit) == 0 && !words.compareAndSet(w, current, current | bit)) {
+      current = words.get(w);
+    }
+  }
+
+  public void clear() {
+    for (int w = 0; w < words.length(); w++) {
+      words.set(w, 0);
+    }
+  }
+
+  public void drain(IntConsumer action) {
+    for (int w = 0; w < words.length(); w++) {
+      if (words.get(w) == 0)
+        continue;
+      long bits = words.getAndSet(w, 0);
+      while (bits != 0) {
+        action.accept((w << 6) + Long.numberOfTrailingZeros(bits));
+        bits &= bits - 1;
+      }
+    }
+  }
+}
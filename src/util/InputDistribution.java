@@ -0,0 +1,9 @@
+package util;
+
+public enum InputDistribution {
+  RANDOM,
+  SORTED,
+  REVERSED,
+  FEW_UNIQUE,
+  SAWTOOTH
+}
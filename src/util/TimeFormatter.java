@@ -11,6 +11,15 @@ public class TimeFormatter {
     }
   }
 
+  public static String formatNanos(long nanos) {
+    if (nanos < 1_000_000_000L) {
+      return String.format("%.1fms", nanos / 1e6);
+    } else if (nanos < 60_000_000_000L) {
+      return String.format("%.2fs", nanos / 1e9);
+    }
+    return formatTime(nanos / 1_000_000_000L);
+  }
+
   private TimeFormatter() {
     // Prevent instantiation
   }
@@ -0,0 +1,41 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import util.ArrayGenerator;
+import util.InputDistribution;
+
+// Every registered algorithm's uninstrumented sort must produce what
+// Arrays.sort does, on every InputDistribution and on sizes from empty to
+// past the stop-polling block.
+class BenchmarkSortsTest {
+  private static final int[] SIZES = { 0, 1, 2, 999, 2 * BenchmarkSorts.CHECK_BLOCK + 1 };
+
+  static Stream<SortAlgorithm> algorithms() {
+    return AlgorithmRegistry.getDefault().getAlgorithms().stream();
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("algorithms")
+  void sortsLikeArraysSort(SortAlgorithm algorithm) {
+    Random random = new Random(42);
+    for (InputDistribution distribution : InputDistribution.values()) {
+      for (int n : SIZES) {
+        int[] input = ArrayGenerator.generateArray(n, distribution, random);
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+        int[] actual = input.clone();
+        algorithm.sort(actual, new AtomicBoolean());
+        assertArrayEquals(expected, actual, algorithm.getName() + " on " + distribution + " n=" + n);
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import model.RunMetrics;
+import trace.OperationTrace;
+import ui.callbacks.FrameStateCallback;
+import util.ArrayGenerator;
+import util.InputDistribution;
+
+// Replays report the live counts, so every operation an instrumented sort
+// counts must also be recorded; Tim Sort's gallops through its merge buffer
+// once were not.
+class SortingAlgorithmsTest {
+  static Stream<SortAlgorithm> algorithms() {
+    return BenchmarkSortsTest.algorithms();
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("algorithms")
+  void liveCountsMatchRecordedTrace(SortAlgorithm algorithm) {
+    int[] input = ArrayGenerator.generateArray(2000, InputDistribution.SAWTOOTH, new Random(7));
+    RunMetrics metrics = new RunMetrics();
+    algorithm.visualize(new SortingAlgorithms(input.clone(),
+        new FrameStateCallback(input.length, metrics, () -> {}), new AtomicBoolean(), false, null));
+
+    OperationTrace trace = new OperationTrace(input);
+    SortingAlgorithms recorder = new SortingAlgorithms(input.clone(), null, new AtomicBoolean(), false, null);
+    recorder.recordTo(trace);
+    algorithm.visualize(recorder);
+    long[] recorded = new long[4];
+    for (int k = 0; k < trace.size(); k++) {
+      recorded[trace.opcode(k)]++;
+    }
+
+    RunMetrics.Snapshot live = metrics.snapshot();
+    String name = algorithm.getName();
+    assertEquals(recorded[OperationTrace.COMPARE], live.compares(), name + " compares");
+    assertEquals(recorded[OperationTrace.SWAP], live.swaps(), name + " swaps");
+    assertEquals(recorded[OperationTrace.WRITE], live.writes(), name + " writes");
+    assertEquals(recorded[OperationTrace.READ], live.reads(), name + " reads");
+  }
+}
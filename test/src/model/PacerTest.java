@@ -0,0 +1,38 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+// A stop reaches a parked thread without interrupting it, as it must for the
+// fork/join workers of a parallel sort.
+class PacerTest {
+  @Test
+  void stopEndsAParkWithinAFrame() throws InterruptedException {
+    AtomicBoolean stopRequested = new AtomicBoolean();
+    Pacer pacer = new Pacer(() -> 0.5, stopRequested);
+    Thread worker = new Thread(pacer::pace);
+    worker.start();
+
+    Thread.sleep(100);
+    assertTrue(worker.isAlive(), "paced a two second step without parking");
+    stopRequested.set(true);
+    worker.join(500);
+
+    assertFalse(worker.isAlive(), "still parked half a second after the stop");
+  }
+
+  @Test
+  void unlimitedNeverParks() {
+    Pacer pacer = new Pacer(() -> Pacer.UNLIMITED, new AtomicBoolean());
+    long start = System.nanoTime();
+    for (int i = 0; i < 1_000_000; i++) {
+      pacer.pace();
+    }
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+  }
+}
@@ -0,0 +1,181 @@
+package trace;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+// A restored snapshot must equal the array as it was when the snapshot was
+// taken, however many chunks it shares with its neighbours or were written
+// since the last restore.
+class SnapshotsTest {
+  // Not a multiple of the 1024-element chunk, so the last chunk is short.
+  private static final int ARRAY_LENGTH = 5000;
+  private static final int CHUNKS = 5;
+  private static final int OPERATIONS = 12_000;
+
+  @Test
+  void restoresTheArrayEachSnapshotWasTakenFrom() {
+    Random random = new Random(8);
+    OperationTrace trace = TraceFixtures.randomTrace(ARRAY_LENGTH, OPERATIONS, random);
+    Snapshots snapshots = new Snapshots(ARRAY_LENGTH, OPERATIONS, 64L << 20);
+    int[] array = trace.getInitialArray();
+    Map<Long, int[]> expected = pass(snapshots, trace, array);
+    assertEquals(OPERATIONS / snapshots.interval() + 1, expected.size(), "snapshots taken");
+
+    for (int i = 0; i < 100; i++) {
+      long target = random.nextInt(OPERATIONS + 1);
+      long position = snapshots.restore(target, array);
+      assertEquals(target / snapshots.interval() * snapshots.interval(), position, "snapshot before " + target);
+      assertArrayEquals(expected.get(position), array, "restored " + position);
+
+      // Write into a few chunks, so the next restore must copy them back even
+      // where the snapshots share them.
+      for (int w = random.nextInt(4); w > 0; w--) {
+        int index = random.nextInt(ARRAY_LENGTH);
+        array[index] = random.nextInt();
+        snapshots.touch(index);
+      }
+    }
+  }
+
+  // After invalidate() the array matches no snapshot, so every chunk is
+  // copied rather than only those that differ.
+  @Test
+  void restoresEveryChunkAfterInvalidate() {
+    OperationTrace trace = TraceFixtures.randomTrace(ARRAY_LENGTH, OPERATIONS, new Random(9));
+    Snapshots snapshots = new Snapshots(ARRAY_LENGTH, OPERATIONS, 64L << 20);
+    Map<Long, int[]> expected = pass(snapshots, trace, trace.getInitialArray());
+
+    int[] array = new int[ARRAY_LENGTH];
+    snapshots.invalidate();
+    long position = snapshots.restore(snapshots.interval() + 1, array);
+    assertArrayEquals(expected.get(position), array);
+  }
+
+  // Spaced out so they fit, and a snapshot that would go over budget is
+  // dropped rather than kept.
+  @Test
+  void staysWithinASmallBudget() {
+    OperationTrace trace = TraceFixtures.randomTrace(ARRAY_LENGTH, OPERATIONS, new Random(10));
+    // Every chunk copied, each with its array header.
+    long oneSnapshot = 4L * ARRAY_LENGTH + 8L * CHUNKS + 16 + 16L * CHUNKS;
+
+    Snapshots three = new Snapshots(ARRAY_LENGTH, OPERATIONS, 3 * oneSnapshot);
+    assertEquals(OPERATIONS / 2, three.interval());
+    int[] array = trace.getInitialArray();
+    Map<Long, int[]> expected = pass(three, trace, array);
+    for (long target : new long[] { OPERATIONS, OPERATIONS / 2 - 1, 0 }) {
+      long position = three.restore(target, array);
+      assertArrayEquals(expected.get(position), array, "restored " + position);
+    }
+
+    Snapshots none = new Snapshots(ARRAY_LENGTH, OPERATIONS, 1);
+    assertEquals(OPERATIONS, none.interval());
+    array = trace.getInitialArray();
+    pass(none, trace, array);
+    assertEquals(0, none.before(OPERATIONS), "only the initial snapshot is kept");
+    assertEquals(0, none.restore(OPERATIONS, array));
+    assertArrayEquals(trace.getInitialArray(), array);
+  }
+
+  // Every backward step goes through a snapshot and replays forward from it.
+  @Test
+  void playerStepsBackOneOperationAtATime() {
+    OperationTrace trace = TraceFixtures.randomTrace(ARRAY_LENGTH, OPERATIONS / 2, new Random(11));
+    int[] array = trace.getInitialArray();
+    TracePlayer player = new TracePlayer(trace, array, null, new AtomicBoolean(), false, null);
+
+    player.seek(trace.size());
+    for (long target = trace.size(); target >= 0; target--) {
+      player.seek(target);
+      assertArrayEquals(TraceFixtures.replay(trace, target), array, "array at " + target);
+    }
+  }
+
+  // A 4MB array leaves room for only 15 unshared snapshots in the default
+  // 64MB, which would space them a fourteenth of the trace apart; the budget
+  // grows so a step back replays at most a thirty-first of it.
+  @Test
+  void stepBackReplaysAtMostOneIntervalOnALargeArray() {
+    int n = 1 << 20;
+    int operations = 100_000;
+    // Neighbouring swaps sweeping up the array, so snapshots share most
+    // chunks and the test stays small however many are taken.
+    OperationTrace trace = new OperationTrace(new Random(13).ints(n).toArray());
+    for (int k = 0; k < operations; k++) {
+      trace.append(OperationTrace.SWAP, k % (n - 1), k % (n - 1) + 1);
+    }
+    long[] replayed = new long[1];
+    TraceCursor cursor = trace.cursor();
+    TraceCursor counting = new TraceCursor() {
+      @Override
+      public long size() {
+        return cursor.size();
+      }
+
+      @Override
+      public int getArrayLength() {
+        return cursor.getArrayLength();
+      }
+
+      @Override
+      public long checkpointBefore(long target) {
+        return cursor.checkpointBefore(target);
+      }
+
+      @Override
+      public long restore(long target, int[] array) {
+        return cursor.restore(target, array);
+      }
+
+      @Override
+      public void skipTo(long position) {
+        cursor.skipTo(position);
+      }
+
+      @Override
+      public long next() {
+        replayed[0]++;
+        return cursor.next();
+      }
+    };
+    int[] array = trace.getInitialArray();
+    TracePlayer player = new TracePlayer(counting, array, null, new AtomicBoolean(), false, null);
+    player.seek(operations);
+
+    long bound = (operations + TracePlayer.MIN_SNAPSHOTS - 2) / (TracePlayer.MIN_SNAPSHOTS - 1);
+    Random random = new Random(14);
+    for (int i = 0; i < 50; i++) {
+      long target = random.nextInt(operations);
+      player.seek(target + 1);
+      replayed[0] = 0;
+      player.seek(target);
+      assertTrue(replayed[0] <= bound, "stepping back to " + target + " replayed " + replayed[0]
+          + " operations, more than " + bound);
+    }
+    assertArrayEquals(TraceFixtures.replay(trace, player.getPosition()), array);
+  }
+
+  // Plays the trace over array, marking written chunks and passing each
+  // interval as TracePlayer does, and returns the array at every interval.
+  private static Map<Long, int[]> pass(Snapshots snapshots, OperationTrace trace, int[] array) {
+    Map<Long, int[]> expected = new HashMap<>();
+    for (int k = 0; k <= trace.size(); k++) {
+      if (k % snapshots.interval() == 0) {
+        snapshots.passed(k, array);
+        expected.put((long) k, array.clone());
+      }
+      if (k < trace.size()) {
+        TraceFixtures.apply(trace, k, array, snapshots::touch);
+      }
+    }
+    return expected;
+  }
+}
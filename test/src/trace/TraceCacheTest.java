@@ -0,0 +1,159 @@
+package trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Hits only on the exact input, evicts least recently used first, and reads
+// what it spilled back from disk as the same operations.
+class TraceCacheTest {
+  private static final int ARRAY_LENGTH = 500;
+  private static final int OPERATIONS = 3 * TraceFormat.BLOCK_OPS + 5;
+
+  @TempDir
+  Path dir;
+
+  private final Random random = new Random(12);
+
+  @Test
+  void hitReturnsTheCachedTrace() {
+    TraceCache cache = new TraceCache(1L << 20, null);
+    OperationTrace trace = newTrace();
+    cache.put("Tim Sort", trace);
+
+    int[] input = trace.getInitialArray();
+    assertSame(trace, cache.get("Tim Sort", input));
+    assertEquals(trace.sizeInBytes(), cache.getUsedBytes());
+  }
+
+  @Test
+  void changedInputOrAlgorithmMisses() {
+    TraceCache cache = new TraceCache(1L << 20, null);
+    OperationTrace trace = newTrace();
+    cache.put("Tim Sort", trace);
+
+    int[] changed = trace.getInitialArray();
+    changed[ARRAY_LENGTH / 2]++;
+    assertNull(cache.get("Tim Sort", changed), "changed element");
+    assertNull(cache.get("Tim Sort", Arrays.copyOf(changed, ARRAY_LENGTH - 1)), "shorter input");
+    assertNull(cache.get("Intro Sort", trace.getInitialArray()), "other algorithm");
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedFirst() {
+    OperationTrace a = newTrace();
+    OperationTrace b = newTrace();
+    OperationTrace c = newTrace();
+    TraceCache cache = new TraceCache(2 * a.sizeInBytes() + a.sizeInBytes() / 2, null);
+    cache.put("A", a);
+    cache.put("B", b);
+    cache.get("A", a.getInitialArray());
+    cache.put("C", c);
+
+    assertEquals(2, cache.size());
+    assertEquals(a.sizeInBytes() + c.sizeInBytes(), cache.getUsedBytes());
+    assertNull(cache.get("B", b.getInitialArray()), "least recently used, with no spill directory");
+    assertSame(a, cache.get("A", a.getInitialArray()));
+    assertSame(c, cache.get("C", c.getInitialArray()));
+  }
+
+  @Test
+  void reloadsEvictedTracesFromTheSpillDirectory() throws IOException {
+    OperationTrace a = newTrace();
+    OperationTrace b = newTrace();
+    TraceCache cache = new TraceCache(a.sizeInBytes() + a.sizeInBytes() / 2, dir);
+    cache.put("Tim Sort", a);
+    cache.put("Intro Sort", b);
+    assertEquals(1, cache.size(), "evicted from memory");
+    assertEquals(b.sizeInBytes(), cache.getUsedBytes());
+    try (Stream<Path> files = Files.list(dir)) {
+      assertEquals(1, files.filter(p -> p.toString().endsWith(".strace")).count(), "spilled");
+    }
+
+    OperationTrace reloaded = cache.get("Tim Sort", a.getInitialArray());
+    assertNotNull(reloaded);
+    assertNotSame(a, reloaded);
+    assertEquals(a.size(), reloaded.size(), "size");
+    TraceFixtures.assertDecodes(a, reloaded.cursor(), 0, a.size());
+    assertEquals(reloaded.sizeInBytes(), cache.getUsedBytes(), "back in memory, and the other evicted");
+    assertSame(reloaded, cache.get("Tim Sort", a.getInitialArray()));
+  }
+
+  // A trace larger than the whole budget would evict everything and still
+  // not fit, so it goes straight to disk.
+  @Test
+  void spillsTracesLargerThanTheBudget() {
+    OperationTrace small = TraceFixtures.randomTrace(ARRAY_LENGTH, 10, random);
+    OperationTrace large = newTrace();
+    TraceCache cache = new TraceCache(large.sizeInBytes() - 1, dir);
+    cache.put("Small", small);
+    cache.put("Large", large);
+
+    assertEquals(1, cache.size(), "only the small trace in memory");
+    assertEquals(small.sizeInBytes(), cache.getUsedBytes());
+    OperationTrace reloaded = cache.get("Large", large.getInitialArray());
+    assertNotNull(reloaded);
+    TraceFixtures.assertDecodes(large, reloaded.cursor(), 0, large.size());
+    assertSame(small, cache.get("Small", small.getInitialArray()), "not evicted by the reload");
+  }
+
+  // An unreadable spill file is thrown for the caller to report and then
+  // deleted, so the next lookup is a plain miss.
+  @Test
+  void reportsAndDeletesASpillItCannotReload() throws IOException {
+    OperationTrace large = newTrace();
+    TraceCache cache = new TraceCache(large.sizeInBytes() - 1, dir);
+    cache.put("Large", large);
+    Path spilled = onlySpill();
+    Files.write(spilled, new byte[] { 1, 2, 3 });
+
+    assertThrows(UncheckedIOException.class, () -> cache.get("Large", large.getInitialArray()));
+    assertFalse(Files.exists(spilled), "deleted");
+    assertNull(cache.get("Large", large.getInitialArray()));
+  }
+
+  // A dangling link where the spill goes makes the final move fail after the
+  // whole trace is written; the partial file must not be left behind.
+  @Test
+  void reportsAFailedSpillAndDeletesThePartialFile() throws IOException {
+    OperationTrace large = newTrace();
+    TraceCache cache = new TraceCache(large.sizeInBytes() - 1, dir);
+    cache.put("Large", large);
+    Path spilled = onlySpill();
+    Files.delete(spilled);
+    Files.createSymbolicLink(spilled, dir.resolve("missing"));
+
+    assertThrows(UncheckedIOException.class, () -> cache.put("Large", large));
+    try (Stream<Path> files = Files.list(dir)) {
+      assertEquals(0, files.filter(p -> p.toString().endsWith(".part")).count(), "partial left");
+    }
+  }
+
+  private Path onlySpill() throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      List<Path> spilled = files.filter(p -> p.toString().endsWith(".strace")).toList();
+      assertEquals(1, spilled.size(), "spilled");
+      return spilled.get(0);
+    }
+  }
+
+  private OperationTrace newTrace() {
+    return TraceFixtures.randomTrace(ARRAY_LENGTH, OPERATIONS, random);
+  }
+}
@@ -0,0 +1,181 @@
+package trace;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// What TraceWriter wrote, TraceFile must read back: every operation, and after
+// any seek the same array a plain replay gives, whichever block, checkpoint or
+// segment it goes through.
+class TraceFileTest {
+  private static final int BLOCK = TraceFormat.BLOCK_OPS;
+  private static final int ARRAY_LENGTH = 3000;
+  private static final int OPERATIONS = 20 * BLOCK + 123;
+  private static final long INTERVAL = 2 * BLOCK;
+  // Small enough that the file spans several segments, with blocks and
+  // checkpoints starting inside the overlaps, as they do past 1GB.
+  private static final long SMALL_SEGMENT = 1 << 16;
+
+  @TempDir
+  Path dir;
+
+  // Empty, partial, exactly full and just spilled blocks, since blocks open
+  // lazily and deltas restart at each one.
+  @Test
+  void roundTripsOperationsAcrossBlockBoundaries() throws IOException {
+    Random random = new Random(1);
+    for (int count : new int[] { 0, 1, BLOCK - 1, BLOCK, BLOCK + 1, 2 * BLOCK, 3 * BLOCK + 17 }) {
+      OperationTrace trace = TraceFixtures.randomTrace(1000, count, random);
+      Path path = dir.resolve("trace-" + count + ".strace");
+      TraceFixtures.write(trace, path, BLOCK);
+
+      try (TraceFile file = TraceFile.open(path)) {
+        assertEquals(count, file.size(), "size");
+        assertEquals(1000, file.getArrayLength(), "array length");
+        int[] initial = new int[file.getArrayLength()];
+        file.copyInitialArrayInto(initial);
+        assertArrayEquals(trace.getInitialArray(), initial, "initial array");
+        TraceFixtures.assertDecodes(trace, file.cursor(), 0, count);
+      }
+    }
+  }
+
+  @Test
+  void roundTripsExtremeIndexesAndValues() throws IOException {
+    int n = 1 << 20;
+    OperationTrace trace = new OperationTrace(new int[n]);
+    trace.append(OperationTrace.COMPARE, 0, n - 1);
+    trace.append(OperationTrace.SWAP, n - 1, 0);
+    trace.append(OperationTrace.WRITE, n - 1, Integer.MIN_VALUE);
+    trace.append(OperationTrace.WRITE, 0, Integer.MAX_VALUE);
+    trace.append(OperationTrace.WRITE, n - 2, Integer.MIN_VALUE);
+    trace.append(OperationTrace.READ, n - 1, -1);
+    trace.append(OperationTrace.COMPARE, 0, -1);
+    trace.append(OperationTrace.SWAP, n - 2, n - 1);
+    Path path = dir.resolve("extremes.strace");
+    TraceFixtures.write(trace, path, TraceFormat.checkpointInterval(n));
+
+    try (TraceFile file = TraceFile.open(path)) {
+      TraceFixtures.assertDecodes(trace, file.cursor(), 0, trace.size());
+    }
+  }
+
+  @Test
+  void rejectsFilesThatAreNotCompleteTraces() throws IOException {
+    Path garbage = dir.resolve("garbage.strace");
+    Files.write(garbage, new byte[256]);
+    assertThrows(IOException.class, () -> TraceFile.open(garbage));
+
+    Path path = dir.resolve("whole.strace");
+    TraceFixtures.write(TraceFixtures.randomTrace(100, BLOCK, new Random(2)), path, BLOCK);
+    byte[] bytes = Files.readAllBytes(path);
+    Path truncated = dir.resolve("truncated.strace");
+    Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+    assertThrows(IOException.class, () -> TraceFile.open(truncated));
+  }
+
+  @Test
+  void seeksEitherSideOfBlockBoundaries() throws IOException {
+    OperationTrace trace = written(new Random(3));
+    try (TraceFile file = TraceFile.open(path())) {
+      int[] array = new int[ARRAY_LENGTH];
+      TracePlayer player = new TracePlayer(file, array, null, new AtomicBoolean(), false, null);
+      for (int k = 1; k * BLOCK <= OPERATIONS; k++) {
+        for (long target : new long[] { k * BLOCK - 1, k * BLOCK, k * BLOCK + 1 }) {
+          assertSeek(trace, player, array, target);
+        }
+      }
+      for (int k = OPERATIONS / BLOCK; k >= 1; k--) {
+        for (long target : new long[] { k * BLOCK + 1, k * BLOCK, k * BLOCK - 1 }) {
+          assertSeek(trace, player, array, target);
+        }
+      }
+      assertSeek(trace, player, array, OPERATIONS);
+      assertSeek(trace, player, array, 0);
+    }
+  }
+
+  @Test
+  void seeksToRandomTargetsForwardAndBack() throws IOException {
+    Random random = new Random(4);
+    OperationTrace trace = written(random);
+    try (TraceFile file = TraceFile.open(path())) {
+      int[] array = new int[ARRAY_LENGTH];
+      TracePlayer player = new TracePlayer(file, array, null, new AtomicBoolean(), false, null);
+      for (int i = 0; i < 200; i++) {
+        assertSeek(trace, player, array, random.nextInt(OPERATIONS + 1));
+      }
+    }
+  }
+
+  @Test
+  void checkpointsRestoreTheArrayAndResumeDecoding() throws IOException {
+    OperationTrace trace = written(new Random(5));
+    try (TraceFile file = TraceFile.open(path())) {
+      assertCheckpoints(trace, file.cursor());
+    }
+  }
+
+  @Test
+  void readsAcrossSegmentOverlaps() throws IOException {
+    Random random = new Random(6);
+    OperationTrace trace = written(random);
+    assertTrue(Files.size(path()) > 4 * SMALL_SEGMENT, "trace spans several segments");
+
+    try (TraceFile file = TraceFile.open(path(), SMALL_SEGMENT)) {
+      int[] initial = new int[ARRAY_LENGTH];
+      file.copyInitialArrayInto(initial);
+      assertArrayEquals(trace.getInitialArray(), initial, "initial array");
+      TraceFixtures.assertDecodes(trace, file.cursor(), 0, OPERATIONS);
+      assertCheckpoints(trace, file.cursor());
+
+      int[] array = new int[ARRAY_LENGTH];
+      TracePlayer player = new TracePlayer(file, array, null, new AtomicBoolean(), false, null);
+      for (int i = 0; i < 100; i++) {
+        assertSeek(trace, player, array, random.nextInt(OPERATIONS + 1));
+      }
+    }
+  }
+
+  private OperationTrace written(Random random) throws IOException {
+    OperationTrace trace = TraceFixtures.randomTrace(ARRAY_LENGTH, OPERATIONS, random);
+    TraceFixtures.write(trace, path(), INTERVAL);
+    return trace;
+  }
+
+  private Path path() {
+    return dir.resolve("trace.strace");
+  }
+
+  private static void assertSeek(OperationTrace trace, TracePlayer player, int[] array, long target) {
+    player.seek(target);
+    assertEquals(target, player.getPosition(), "position");
+    assertArrayEquals(TraceFixtures.replay(trace, target), array, "array at " + target);
+  }
+
+  // Each checkpoint, and a target just past it, restores the checkpoint's
+  // array and then decodes the operations that follow it.
+  private static void assertCheckpoints(OperationTrace trace, TraceCursor cursor) {
+    for (long checkpoint = 0; checkpoint <= OPERATIONS; checkpoint += INTERVAL) {
+      for (long target : new long[] { checkpoint, checkpoint + BLOCK + 1 }) {
+        int[] array = new int[ARRAY_LENGTH];
+        long position = cursor.restore(target, array);
+        assertEquals(checkpoint, position, "checkpoint before " + target);
+        assertEquals(position, cursor.checkpointBefore(target), "checkpointBefore " + target);
+        assertArrayEquals(TraceFixtures.replay(trace, position), array, "array at checkpoint " + position);
+        TraceFixtures.assertDecodes(trace, cursor, position, Math.min(OPERATIONS, position + BLOCK + 2));
+      }
+    }
+  }
+}
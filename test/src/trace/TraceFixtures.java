@@ -0,0 +1,91 @@
+package trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+// Random but valid traces, written through TraceWriter, and a plain replay to
+// check whatever reads them back against.
+final class TraceFixtures {
+  private TraceFixtures() {
+  }
+
+  // Every opcode over a random array, with first indexes that mostly drift
+  // and sometimes jump, adjacent pairs, compares against -1 and written
+  // values across the whole int range, so every varint width and the
+  // ADJACENT flag are used.
+  static OperationTrace randomTrace(int n, int count, Random random) {
+    OperationTrace trace = new OperationTrace(random.ints(n).toArray());
+    int a = 0;
+    for (int k = 0; k < count; k++) {
+      a = random.nextInt(4) == 0 ? random.nextInt(n) : Math.floorMod(a + random.nextInt(7) - 3, n);
+      int opcode = random.nextInt(4);
+      int b = switch (opcode) {
+        case OperationTrace.COMPARE -> random.nextInt(8) == 0 ? -1 : secondIndex(a, n, random);
+        case OperationTrace.SWAP -> secondIndex(a, n, random);
+        case OperationTrace.WRITE -> random.nextInt(16) == 0
+            ? (random.nextBoolean() ? Integer.MIN_VALUE : Integer.MAX_VALUE) : random.nextInt();
+        default -> -1;
+      };
+      trace.append(opcode, a, b);
+    }
+    trace.trimToSize();
+    return trace;
+  }
+
+  static void write(OperationTrace trace, Path path, long checkpointInterval) throws IOException {
+    try (TraceWriter writer = new TraceWriter(path, trace.getInitialArray(), checkpointInterval)) {
+      for (int k = 0; k < trace.size(); k++) {
+        writer.append(trace.opcode(k), trace.first(k), trace.second(k));
+      }
+    }
+  }
+
+  // The array after the first count operations.
+  static int[] replay(OperationTrace trace, long count) {
+    int[] array = trace.getInitialArray();
+    for (int k = 0; k < count; k++) {
+      apply(trace, k, array, index -> {
+      });
+    }
+    return array;
+  }
+
+  // Applies operation k to the array, reporting each index it writes.
+  static void apply(OperationTrace trace, int k, int[] array, IntConsumer written) {
+    int a = trace.first(k);
+    int b = trace.second(k);
+    switch (trace.opcode(k)) {
+      case OperationTrace.SWAP -> {
+        int t = array[a];
+        array[a] = array[b];
+        array[b] = t;
+        written.accept(a);
+        written.accept(b);
+      }
+      case OperationTrace.WRITE -> {
+        array[a] = b;
+        written.accept(a);
+      }
+      default -> {
+      }
+    }
+  }
+
+  // The cursor decodes operations from through to of the trace, in order.
+  static void assertDecodes(OperationTrace trace, TraceCursor cursor, long from, long to) {
+    for (int k = (int) from; k < to; k++) {
+      long operation = cursor.next();
+      assertEquals(trace.opcode(k), OperationTrace.opcodeOf(operation), "opcode " + k);
+      assertEquals(trace.first(k), OperationTrace.firstOf(operation), "first " + k);
+      assertEquals(trace.second(k), OperationTrace.secondOf(operation), "second " + k);
+    }
+  }
+
+  private static int secondIndex(int a, int n, Random random) {
+    return a + 1 < n && random.nextBoolean() ? a + 1 : random.nextInt(n);
+  }
+}
@@ -0,0 +1,102 @@
+package trace;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// TraceWriter must lay a trace out as TraceFormat describes: the header, a
+// checkpoint before every interval, full blocks but the last, and indexes
+// behind the footer that point at each of them.
+class TraceWriterTest {
+  private static final int BLOCK = TraceFormat.BLOCK_OPS;
+  private static final int ARRAY_LENGTH = 1000;
+  private static final long INTERVAL = 2 * BLOCK;
+
+  @TempDir
+  Path dir;
+
+  // Empty, partial, exactly full and just spilled blocks, and checkpoints
+  // that fall on the last block or just past the end.
+  @Test
+  void laysOutBlocksCheckpointsAndIndexes() throws IOException {
+    Random random = new Random(1);
+    for (int count : new int[] { 0, 1, BLOCK - 1, BLOCK, BLOCK + 1, 2 * BLOCK, 5 * BLOCK + 17 }) {
+      OperationTrace trace = TraceFixtures.randomTrace(ARRAY_LENGTH, count, random);
+      Path path = dir.resolve("trace-" + count + ".strace");
+      TraceFixtures.write(trace, path, INTERVAL);
+      assertLayout(trace, ByteBuffer.wrap(Files.readAllBytes(path)), count + " operations: ");
+    }
+  }
+
+  @Test
+  void rejectsCheckpointIntervalsOffBlockBoundaries() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new TraceWriter(dir.resolve("bad.strace"), new int[10], BLOCK + 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TraceWriter(dir.resolve("bad.strace"), new int[10], 0));
+  }
+
+  @Test
+  void spacesDefaultCheckpointsOnBlockBoundaries() {
+    for (int n : new int[] { 0, 1, 1000, 8193, 2_000_000 }) {
+      long interval = TraceFormat.checkpointInterval(n);
+      assertEquals(0, interval % BLOCK, "n=" + n);
+      assertTrue(interval >= TraceFormat.MIN_CHECKPOINT_INTERVAL && interval >= 8L * n, "n=" + n);
+    }
+  }
+
+  private static void assertLayout(OperationTrace trace, ByteBuffer file, String label) {
+    int count = trace.size();
+    assertEquals(TraceFormat.MAGIC, file.getInt(0), label + "magic");
+    assertEquals(TraceFormat.VERSION, file.getInt(4), label + "version");
+    assertEquals(ARRAY_LENGTH, file.getInt(8), label + "array length");
+    assertEquals(BLOCK, file.getInt(12), label + "block ops");
+    assertEquals(INTERVAL, file.getLong(16), label + "checkpoint interval");
+
+    int footer = file.limit() - TraceFormat.FOOTER_BYTES;
+    long blockIndex = file.getLong(footer + 8);
+    int blocks = file.getInt(footer + 16);
+    long checkpointIndex = file.getLong(footer + 20);
+    int checkpoints = file.getInt(footer + 28);
+    assertEquals(count, file.getLong(footer), label + "operations");
+    assertEquals(TraceFormat.MAGIC, file.getInt(footer + 32), label + "footer magic");
+    assertEquals((count + BLOCK - 1) / BLOCK, blocks, label + "blocks");
+    assertEquals(count == 0 ? 1 : (count - 1) / INTERVAL + 1, checkpoints, label + "checkpoints");
+    assertEquals(blockIndex + 8L * blocks, checkpointIndex, label + "block index size");
+    assertEquals(checkpointIndex + 8L * checkpoints, footer, label + "checkpoint index size");
+
+    for (int k = 0; k < checkpoints; k++) {
+      int offset = (int) file.getLong((int) checkpointIndex + 8 * k);
+      int[] saved = new int[ARRAY_LENGTH];
+      file.slice(offset, 4 * ARRAY_LENGTH).asIntBuffer().get(saved);
+      assertArrayEquals(TraceFixtures.replay(trace, k * INTERVAL), saved, label + "checkpoint " + k);
+    }
+
+    // Blocks follow one another, with a checkpoint wedged in before each that
+    // starts an interval, and the indexes follow the last one.
+    long next = TraceFormat.HEADER_BYTES + 4L * ARRAY_LENGTH;
+    for (int b = 0; b < blocks; b++) {
+      if (b > 0 && (long) b * BLOCK % INTERVAL == 0) {
+        next += 4L * ARRAY_LENGTH;
+      }
+      int offset = (int) file.getLong((int) blockIndex + 8 * b);
+      assertEquals(next, offset, label + "block " + b + " offset");
+      int ops = file.getInt(offset);
+      int bytes = file.getInt(offset + 4);
+      assertEquals(Math.min(BLOCK, count - b * BLOCK), ops, label + "block " + b + " ops");
+      assertTrue(bytes >= ops && bytes <= ops * TraceFormat.MAX_OP_BYTES, label + "block " + b + " bytes");
+      next = offset + TraceFormat.BLOCK_HEADER_BYTES + bytes;
+    }
+    assertEquals(next, blockIndex, label + "block index offset");
+  }
+}